@@ -0,0 +1,154 @@
+package com.example.cardissuance.benchmark;
+
+import com.example.cardissuance.CardIssuanceApplication;
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.BatchOperationRequest;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.dto.TransactionPage;
+import com.example.cardissuance.service.CardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link CardService} against an embedded H2 database: in memory with the default
+ * settings, or file-backed with the tuned pool and Hibernate settings of the {@code production}
+ * profile.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify}; pass JMH options through {@code -Djmh.args},
+ * e.g. {@code -Djmh.args="CardServiceBenchmark.spend -t 16 -p engine=jpa,atomic -p skew=1.1 -prof gc"}.
+ * Sample-time mode reports p99 latency, {@code -prof gc} the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CardServiceBenchmark {
+
+    // Every engine by default, so the conditional-update engine is compared on the hot-card spends
+    @Param({"jpa", "atomic", "group-commit", "ledger"})
+    public String engine;
+
+    @Param({"default", "production"})
+    public String profile;
+
+    @Param({"1000"})
+    public int cards;
+
+    @Param({"100"})
+    public int historyDepth;
+
+    // Zipf exponent for card popularity: 0 is uniform
+    @Param({"0", "1.1"})
+    public double skew;
+
+    private ConfigurableApplicationContext context;
+    private CardService cardService;
+    private Long[] cardIds;
+    private ZipfSampler sampler;
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CardIssuanceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "card.engine=" + engine,
+                        "card.ledger.journal-path=" + Files.createTempFile("bench-ledger", ".journal"),
+                        "logging.level.root=WARN");
+        if ("production".equals(profile)) {
+            builder.profiles("production")
+                    .properties("card.data-dir=" + Files.createTempDirectory("bench-data"));
+        } else {
+            builder.properties("spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+        }
+        context = builder.run();
+        cardService = context.getBean(CardService.class);
+
+        cardIds = new Long[cards];
+        for (int i = 0; i < cards; i++) {
+            CardRequest request = new CardRequest();
+            request.setCardholderName("Card " + i);
+            request.setInitialBalance(BigDecimal.valueOf(1_000_000_000L));
+            cardIds[i] = cardService.createCard(request).getId();
+        }
+        seedHistory();
+        sampler = new ZipfSampler(cards, skew);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SpendResponse spend(ThreadState state) {
+        return cardService.spend(pick(state), BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public SpendResponse topUp(ThreadState state) {
+        return cardService.topUp(pick(state), BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public CardSnapshot getCard(ThreadState state) {
+        return cardService.getCard(pick(state));
+    }
+
+    @Benchmark
+    public TransactionPage getTransactions(ThreadState state) {
+        return cardService.getTransactions(pick(state), null, 50);
+    }
+
+    private Long pick(ThreadState state) {
+        return cardIds[sampler.next(state.random)];
+    }
+
+    private void seedHistory() {
+        List<BatchOperationRequest> batch = new ArrayList<>();
+        for (int depth = 0; depth < historyDepth; depth++) {
+            for (Long cardId : cardIds) {
+                BatchOperationRequest operation = new BatchOperationRequest();
+                operation.setCardId(cardId);
+                operation.setType("SPEND");
+                operation.setAmount(BigDecimal.ONE);
+                batch.add(operation);
+                if (batch.size() == 5_000) {
+                    cardService.applyBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            cardService.applyBatch(batch);
+        }
+    }
+}
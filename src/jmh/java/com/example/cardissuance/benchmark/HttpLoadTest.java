@@ -0,0 +1,136 @@
+package com.example.cardissuance.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load generator against a running instance, used to compare the default
+ * platform-thread mode with the {@code virtual-threads} profile:
+ *
+ * <pre>
+ * mvn spring-boot:run                                             # or with -Dspring-boot.run.profiles=virtual-threads
+ * mvn -Pbenchmark test-compile exec:exec@load-test -Dload.args="concurrency=2000 seconds=30"
+ * </pre>
+ *
+ * Mix: 80% GET /cards/{id}, 15% spend, 5% history page. Reports throughput, error count
+ * (including 503s from the bulkhead) and latency percentiles.
+ */
+public final class HttpLoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        String baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "500"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        int cardCount = Integer.parseInt(options.getOrDefault("cards", "100"));
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        long[] cardIds = new long[cardCount];
+        for (int i = 0; i < cardCount; i++) {
+            HttpResponse<String> created = client.send(json(baseUrl + "/cards",
+                    "{\"cardholderName\":\"Load " + i + "\",\"initialBalance\":1000000000}"),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = ID.matcher(created.body());
+            if (!matcher.find()) {
+                throw new IllegalStateException("Could not create card: " + created.body());
+            }
+            cardIds[i] = Long.parseLong(matcher.group(1));
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            results.add(workers.submit(() -> {
+                SplittableRandom random = new SplittableRandom();
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long cardId = cardIds[random.nextInt(cardIds.length)];
+                    int dice = random.nextInt(100);
+                    HttpRequest request = dice < 80
+                            ? HttpRequest.newBuilder(URI.create(baseUrl + "/cards/" + cardId)).build()
+                            : dice < 95
+                            ? json(baseUrl + "/cards/" + cardId + "/spend", "{\"amount\":1}")
+                            : HttpRequest.newBuilder(URI.create(baseUrl + "/cards/" + cardId + "/transactions?limit=20")).build();
+
+                    long start = System.nanoTime();
+                    try {
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> perWorker = new ArrayList<>();
+        int total = 0;
+        for (Future<long[]> result : results) {
+            long[] latencies = result.get();
+            perWorker.add(latencies);
+            total += latencies.length;
+        }
+        workers.shutdown();
+
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] latencies : perWorker) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        Arrays.sort(all);
+
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n",
+                total, errors.get(), total / (double) seconds);
+        System.out.printf("p50=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n",
+                millis(all, 0.50), millis(all, 0.99), millis(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static HttpRequest json(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.cardissuance.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time to first successful request and resident memory of a fresh process, for the plain jar
+ * and for the artifacts of the {@code fast-start} build (AOT-processed classes plus the CDS
+ * archive), and for the native executable if one was built:
+ *
+ * <pre>
+ * mvn -Pfast-start -DskipTests package
+ * mvn -Pbenchmark test-compile exec:exec@startup-report -Dstartup.args="runs=10"
+ * </pre>
+ *
+ * Each variant is started {@code runs} times; the median of each measure is reported. RSS is
+ * read from {@code /proc} right after the first request, so it is only available on Linux.
+ */
+public final class StartupReport {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path target = Path.of(options.getOrDefault("target", "target"));
+        String artifact = options.getOrDefault("artifact", "card-issuance-0.0.1-SNAPSHOT");
+        Path fastStart = target.resolve("fast-start");
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jar", List.of("java", "-jar", target.resolve(artifact + ".jar").toString()));
+        variants.put("aot+cds", List.of("java",
+                "-XX:SharedArchiveFile=" + fastStart.resolve("app.jsa"),
+                "-Dspring.aot.enabled=true",
+                "-jar", fastStart.resolve(artifact + "-fast-start.jar").toString()));
+        Path nativeImage = target.resolve("card-issuance");
+        if (Files.isExecutable(nativeImage)) {
+            variants.put("native", List.of(nativeImage.toString()));
+        }
+
+        System.out.printf("%-10s %14s %10s%n", "variant", "first request", "rss");
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            long[] millis = new long[runs];
+            long[] rssKb = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long[] measured = measure(variant.getValue());
+                millis[i] = measured[0];
+                rssKb[i] = measured[1];
+            }
+            long rss = median(rssKb);
+            System.out.printf("%-10s %11d ms %10s%n", variant.getKey(), median(millis),
+                    rss < 0 ? "n/a" : rss / 1024 + " MB");
+        }
+    }
+
+    // Milliseconds from launch to the first 200 from /actuator/health, and RSS in KB at that point
+    private static long[] measure(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Exited with " + process.exitValue() + ": " + command);
+                }
+                if (System.nanoTime() - start > TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("No response within " + TIMEOUT + ": " + command);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            return new long[] {millis, rssKb(process.pid())};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
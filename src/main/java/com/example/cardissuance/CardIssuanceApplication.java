@@ -1,7 +1,20 @@
 package com.example.cardissuance;
 
+import com.example.cardissuance.export.StatementExporter;
+import com.example.cardissuance.startup.TrainingRun;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 @SpringBootApplication
 public class CardIssuanceApplication {
@@ -10,4 +23,45 @@ public class CardIssuanceApplication {
 		SpringApplication.run(CardIssuanceApplication.class, args);
 	}
 
+	/**
+	 * Export mode: with {@code --card.export.file=...} the application writes the statement for
+	 * {@code card.export.from} to {@code card.export.to} (UTC dates, default yesterday) and exits.
+	 * Add {@code --spring.main.web-application-type=none} to skip starting the web server. Checked
+	 * at run time, like {@link #trainingRun}, so the {@code fast-start} build can export too.
+	 */
+	@Bean
+	CommandLineRunner statementExport(StatementExporter exporter,
+									  ConfigurableApplicationContext context,
+									  @Value("${card.export.file:}") String file,
+									  @Value("${card.export.from:}") String from,
+									  @Value("${card.export.to:}") String to) {
+		return args -> {
+			if (file.isEmpty()) {
+				return;
+			}
+			LocalDate start = from.isEmpty() ? LocalDate.now(ZoneOffset.UTC).minusDays(1) : LocalDate.parse(from);
+			LocalDate end = to.isEmpty() ? start : LocalDate.parse(to);
+			exporter.exportToFile(start, end, Path.of(file));
+			System.exit(SpringApplication.exit(context));
+		};
+	}
+
+	/**
+	 * Training mode for the {@code fast-start} build: with {@code --card.training.enabled=true}
+	 * the application runs {@link TrainingRun} against itself and exits. Checked at run time, not
+	 * with a condition, because conditions are fixed when the build runs AOT processing.
+	 */
+	@Bean
+	CommandLineRunner trainingRun(ConfigurableApplicationContext context,
+								  ObjectMapper objectMapper,
+								  @Value("${card.training.enabled:false}") boolean enabled,
+								  @Value("${card.training.iterations:20}") int iterations) {
+		return args -> {
+			if (enabled && context instanceof WebServerApplicationContext web) {
+				int status = new TrainingRun(web.getWebServer().getPort(), objectMapper).run(iterations);
+				System.exit(SpringApplication.exit(context, () -> status));
+			}
+		};
+	}
+
 }
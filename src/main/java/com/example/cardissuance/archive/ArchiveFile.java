@@ -0,0 +1,422 @@
+package com.example.cardissuance.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * One month of archived transactions in an immutable, memory-mapped file. Rows are sorted by
+ * card and id and stored column by column, each column delta- and varint-encoded per card, so a
+ * typical row takes a dozen bytes and one card's rows are decoded in place from the mapping.
+ *
+ * <p>Layout: a fixed header, then one index entry per card (card id, last transaction id, row
+ * count and the card's offset into each column), sorted by card id for binary search, then the
+ * columns. Columns: id (delta from the card's previous id), created-at (epoch microseconds,
+ * zigzag delta), amount (zigzag), balance after (zigzag delta) and type (one byte). Files are
+ * written in full and then renamed into place, never modified, and limited to 2 GB.
+ */
+final class ArchiveFile {
+
+    private static final int MAGIC = 0x43545841; // "CTXA"
+    private static final int VERSION = 1;
+
+    private static final int ID = 0;
+    private static final int CREATED_AT = 1;
+    private static final int AMOUNT = 2;
+    private static final int BALANCE_AFTER = 3;
+    private static final int TYPE = 4;
+    private static final int COLUMNS = 5;
+
+    // magic, version, month, card count, row count, column starts, length
+    private static final int HEADER = 4 + 4 + 4 + 4 + 8 + 8 * COLUMNS + 8;
+    // card id, last id, row count, column offsets
+    private static final int INDEX_ENTRY = 8 + 8 + 4 + 4 * COLUMNS;
+
+    private static final byte SPEND = 0;
+    private static final byte TOPUP = 1;
+
+    private final Path path;
+    private final YearMonth month;
+    private final MappedByteBuffer buffer;
+    private final int cardCount;
+    private final long rowCount;
+    private final int[] columnStart = new int[COLUMNS];
+
+    private ArchiveFile(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an archive file: " + path);
+        }
+        int encodedMonth = buffer.getInt(8);
+        this.month = YearMonth.of(encodedMonth / 100, encodedMonth % 100);
+        this.cardCount = buffer.getInt(12);
+        this.rowCount = buffer.getLong(16);
+        for (int i = 0; i < COLUMNS; i++) {
+            columnStart[i] = (int) buffer.getLong(24 + 8 * i);
+        }
+        if (buffer.getLong(24 + 8 * COLUMNS) != buffer.capacity()) {
+            throw new IOException("Truncated archive file: " + path);
+        }
+    }
+
+    static ArchiveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive file over 2 GB: " + path);
+            }
+            // The mapping stays valid once the channel is closed
+            return new ArchiveFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes {@code rows}, which must be ordered by card and id, to {@code target} and forces it
+     * to disk. Columns are spooled to sibling files first, so memory use is one index entry per
+     * card.
+     *
+     * @return the number of rows written
+     */
+    static long write(Path target, YearMonth month, Iterator<ArchivedTransaction> rows) throws IOException {
+        Path[] spools = new Path[COLUMNS];
+        ColumnOutput[] columns = new ColumnOutput[COLUMNS];
+        try {
+            for (int i = 0; i < COLUMNS; i++) {
+                spools[i] = target.resolveSibling(target.getFileName() + ".col" + i);
+                columns[i] = new ColumnOutput(Files.newOutputStream(spools[i]));
+            }
+
+            ByteBuffer index = ByteBuffer.allocate(INDEX_ENTRY * 1024);
+            int[] cardStart = new int[COLUMNS];
+            long cardId = 0;
+            long previousId = 0;
+            long previousMicros = 0;
+            long previousBalance = 0;
+            int cardRows = 0;
+            int cardCount = 0;
+            long rowCount = 0;
+
+            while (rows.hasNext()) {
+                ArchivedTransaction row = rows.next();
+                if (cardRows == 0 || row.cardId() != cardId) {
+                    if (cardRows > 0) {
+                        if (row.cardId() < cardId) {
+                            throw new IllegalArgumentException("Rows must be ordered by card and id");
+                        }
+                        index = indexEntry(index, cardId, previousId, cardRows, cardStart);
+                        cardCount++;
+                    }
+                    cardId = row.cardId();
+                    for (int i = 0; i < COLUMNS; i++) {
+                        cardStart[i] = columns[i].offset();
+                    }
+                    previousId = 0;
+                    previousMicros = 0;
+                    previousBalance = 0;
+                    cardRows = 0;
+                } else if (row.id() <= previousId) {
+                    throw new IllegalArgumentException("Rows must be ordered by card and id");
+                }
+
+                long micros = toMicros(row.createdAt());
+                columns[ID].writeVarLong(row.id() - previousId);
+                columns[CREATED_AT].writeVarLong(zigzag(micros - previousMicros));
+                columns[AMOUNT].writeVarLong(zigzag(row.amountMinor()));
+                columns[BALANCE_AFTER].writeVarLong(zigzag(row.balanceAfterMinor() - previousBalance));
+                columns[TYPE].write("TOPUP".equals(row.type()) ? TOPUP : SPEND);
+                previousId = row.id();
+                previousMicros = micros;
+                previousBalance = row.balanceAfterMinor();
+                cardRows++;
+                rowCount++;
+            }
+            if (cardRows > 0) {
+                index = indexEntry(index, cardId, previousId, cardRows, cardStart);
+                cardCount++;
+            }
+            for (ColumnOutput column : columns) {
+                column.close();
+            }
+
+            long[] starts = new long[COLUMNS];
+            long position = HEADER + (long) INDEX_ENTRY * cardCount;
+            for (int i = 0; i < COLUMNS; i++) {
+                starts[i] = position;
+                position += columns[i].offset();
+            }
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Archive of " + month + " would exceed 2 GB");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(month.getYear() * 100 + month.getMonthValue())
+                    .putInt(cardCount)
+                    .putLong(rowCount);
+            for (long start : starts) {
+                header.putLong(start);
+            }
+            header.putLong(position).flip();
+            index.flip();
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                while (index.hasRemaining()) {
+                    out.write(index);
+                }
+                for (Path spool : spools) {
+                    try (FileChannel in = FileChannel.open(spool, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long copied = 0; copied < size; ) {
+                            copied += in.transferTo(copied, size - copied, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            return rowCount;
+        } finally {
+            for (int i = 0; i < COLUMNS; i++) {
+                if (columns[i] != null) {
+                    columns[i].close();
+                }
+                if (spools[i] != null) {
+                    Files.deleteIfExists(spools[i]);
+                }
+            }
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Id of the card's newest archived transaction, or 0 if it has none in this month.
+     */
+    long lastId(long cardId) {
+        int entry = find(cardId);
+        return entry < 0 ? 0 : buffer.getLong(entryStart(entry) + 8);
+    }
+
+    /**
+     * The card's transactions with an id after {@code after}, in id order.
+     */
+    Iterator<ArchivedTransaction> rows(long cardId, long after) {
+        int entry = find(cardId);
+        if (entry < 0 || buffer.getLong(entryStart(entry) + 8) <= after) {
+            return Collections.emptyIterator();
+        }
+        CardRows rows = new CardRows(entry);
+        while (rows.hasNext() && rows.next.id() <= after) {
+            rows.next();
+        }
+        return rows;
+    }
+
+    /**
+     * Every transaction in the file, ordered by card and id.
+     */
+    Iterator<ArchivedTransaction> all() {
+        return new Iterator<>() {
+
+            private int entry;
+            private CardRows current;
+
+            @Override
+            public boolean hasNext() {
+                while ((current == null || !current.hasNext()) && entry < cardCount) {
+                    current = new CardRows(entry++);
+                }
+                return current != null && current.hasNext();
+            }
+
+            @Override
+            public ArchivedTransaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private int find(long cardId) {
+        int low = 0;
+        int high = cardCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = buffer.getLong(entryStart(middle));
+            if (id < cardId) {
+                low = middle + 1;
+            } else if (id > cardId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static int entryStart(int entry) {
+        return HEADER + INDEX_ENTRY * entry;
+    }
+
+    private static ByteBuffer indexEntry(ByteBuffer index, long cardId, long lastId, int rows, int[] offsets) {
+        if (index.remaining() < INDEX_ENTRY) {
+            ByteBuffer grown = ByteBuffer.allocate(index.capacity() * 2);
+            index.flip();
+            index = grown.put(index);
+        }
+        index.putLong(cardId).putLong(lastId).putInt(rows);
+        for (int offset : offsets) {
+            index.putInt(offset);
+        }
+        return index;
+    }
+
+    private static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant ofMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Decodes one card's rows; reads are absolute, so any number of these share the mapping
+    private final class CardRows implements Iterator<ArchivedTransaction> {
+
+        private final long cardId;
+        private final int[] position = new int[COLUMNS];
+        private int remaining;
+        private long id;
+        private long micros;
+        private long balance;
+        private ArchivedTransaction next;
+
+        private CardRows(int entry) {
+            int start = entryStart(entry);
+            this.cardId = buffer.getLong(start);
+            this.remaining = buffer.getInt(start + 16);
+            for (int i = 0; i < COLUMNS; i++) {
+                position[i] = columnStart[i] + buffer.getInt(start + 20 + 4 * i);
+            }
+            this.next = decode();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ArchivedTransaction next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            ArchivedTransaction row = next;
+            next = decode();
+            return row;
+        }
+
+        private ArchivedTransaction decode() {
+            if (remaining == 0) {
+                return null;
+            }
+            remaining--;
+            id += readVarLong(ID);
+            micros += unzigzag(readVarLong(CREATED_AT));
+            long amount = unzigzag(readVarLong(AMOUNT));
+            balance += unzigzag(readVarLong(BALANCE_AFTER));
+            String type = buffer.get(position[TYPE]++) == TOPUP ? "TOPUP" : "SPEND";
+            return new ArchivedTransaction(cardId, id, type, amount, balance, ofMicros(micros));
+        }
+
+        private long readVarLong(int column) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position[column]++);
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    private static final class ColumnOutput {
+
+        private final OutputStream out;
+        private int offset;
+        private boolean closed;
+
+        private ColumnOutput(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 64 * 1024);
+        }
+
+        int offset() {
+            return offset;
+        }
+
+        void write(byte value) throws IOException {
+            out.write(value);
+            advance(1);
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                out.write((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+                advance(1);
+            }
+            out.write((int) value);
+            advance(1);
+        }
+
+        void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                out.close();
+            }
+        }
+
+        private void advance(int bytes) throws IOException {
+            if (offset > Integer.MAX_VALUE - bytes) {
+                throw new IOException("Archive column would exceed 2 GB");
+            }
+            offset += bytes;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cardissuance.archive;
+
+import com.example.cardissuance.dto.TransactionResponse;
+import com.example.cardissuance.export.StatementLine;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * One transaction as kept in the archive. Amounts in minor units. The idempotency key is not
+ * kept: keys are only honoured while their transaction is in the hot table.
+ */
+public record ArchivedTransaction(Long cardId,
+                                  Long id,
+                                  String type,
+                                  Long amountMinor,
+                                  Long balanceAfterMinor,
+                                  Instant createdAt) {
+
+    // The order of archive files and of the archiver's read
+    static final Comparator<ArchivedTransaction> BY_CARD_AND_ID =
+            Comparator.comparing(ArchivedTransaction::cardId).thenComparing(ArchivedTransaction::id);
+
+    TransactionResponse toResponse() {
+        return new TransactionResponse(id, amountMinor, type, createdAt);
+    }
+
+    StatementLine toStatementLine() {
+        return new StatementLine(cardId, id, type, amountMinor, balanceAfterMinor, createdAt);
+    }
+}
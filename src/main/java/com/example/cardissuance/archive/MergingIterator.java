@@ -0,0 +1,66 @@
+package com.example.cardissuance.archive;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges iterators that are each sorted by {@code order} into one sorted iterator. Elements that
+ * compare equal are returned once: a transaction can be both archived and still in the hot table
+ * for as long as it takes the archiver to delete it.
+ */
+final class MergingIterator<T> implements Iterator<T> {
+
+    private final Comparator<? super T> order;
+    private final PriorityQueue<Source<T>> sources;
+
+    MergingIterator(List<? extends Iterator<? extends T>> iterators, Comparator<? super T> order) {
+        this.order = order;
+        this.sources = new PriorityQueue<>(Math.max(1, iterators.size()), (a, b) -> order.compare(a.head, b.head));
+        for (Iterator<? extends T> iterator : iterators) {
+            if (iterator.hasNext()) {
+                sources.add(new Source<>(iterator));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !sources.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (sources.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        T next = advance();
+        while (!sources.isEmpty() && order.compare(sources.peek().head, next) == 0) {
+            advance();
+        }
+        return next;
+    }
+
+    private T advance() {
+        Source<T> source = sources.poll();
+        T head = source.head;
+        if (source.iterator.hasNext()) {
+            source.head = source.iterator.next();
+            sources.add(source);
+        }
+        return head;
+    }
+
+    private static final class Source<T> {
+
+        private final Iterator<? extends T> iterator;
+        private T head;
+
+        private Source(Iterator<? extends T> iterator) {
+            this.iterator = iterator;
+            this.head = iterator.next();
+        }
+    }
+}
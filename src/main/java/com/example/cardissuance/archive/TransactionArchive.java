@@ -0,0 +1,199 @@
+package com.example.cardissuance.archive;
+
+import com.example.cardissuance.dto.TransactionResponse;
+import com.example.cardissuance.export.StatementLine;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Archived transaction history: one {@link ArchiveFile} per UTC month in {@code card.archive.dir},
+ * filled by the {@link TransactionArchiver} and merged into history reads here, so callers see one
+ * history whichever side a transaction is on.
+ *
+ * <p>The archiver publishes a month's file before it deletes the rows from the hot table. Every
+ * merge therefore reads the hot table first and the archive second: a row deleted after the hot
+ * read is already in the archive. A row found on both sides is returned once.
+ */
+@Component
+public class TransactionArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchive.class);
+
+    static final String PREFIX = "transactions-";
+    static final String SUFFIX = ".arc";
+
+    private static final Comparator<TransactionResponse> BY_ID = Comparator.comparing(TransactionResponse::getId);
+    private static final Comparator<StatementLine> BY_CARD_AND_ID =
+            Comparator.comparing(StatementLine::cardId).thenComparing(StatementLine::id);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final ReentrantLock publishing = new ReentrantLock();
+    private volatile NavigableMap<YearMonth, ArchiveFile> months = Collections.emptyNavigableMap();
+
+    public TransactionArchive(@Value("${card.archive.enabled:false}") boolean enabled,
+                              @Value("${card.archive.dir:data/archive}") String dir) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled || !Files.isDirectory(dir)) {
+            return;
+        }
+        TreeMap<YearMonth, ArchiveFile> opened = new TreeMap<>();
+        long rows = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*")) {
+            for (Path file : files) {
+                if (!file.getFileName().toString().endsWith(SUFFIX)) {
+                    // Left by an archiver run that did not finish; its rows are still hot
+                    Files.delete(file);
+                    continue;
+                }
+                ArchiveFile month = ArchiveFile.open(file);
+                opened.put(month.month(), month);
+                rows += month.rowCount();
+            }
+        }
+        months = Collections.unmodifiableNavigableMap(opened);
+        log.info("Opened {} archived months ({} transactions) in {}", opened.size(), rows, dir);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Id of the card's newest archived transaction, or 0 if none is archived.
+     */
+    public long lastId(Long cardId) {
+        long last = 0;
+        for (ArchiveFile month : months.values()) {
+            last = Math.max(last, month.lastId(cardId));
+        }
+        return last;
+    }
+
+    /**
+     * Merges archived transactions into {@code hot}, one page of the hot table read with
+     * {@code limit} rows after {@code after}: the result is the first {@code limit} of both.
+     */
+    public List<TransactionResponse> mergePage(Long cardId, long after, List<TransactionResponse> hot, int limit) {
+        List<Iterator<TransactionResponse>> sources = new ArrayList<>();
+        for (ArchiveFile month : months.values()) {
+            Iterator<ArchivedTransaction> rows = month.rows(cardId, after);
+            if (rows.hasNext()) {
+                sources.add(stream(rows).map(ArchivedTransaction::toResponse).iterator());
+            }
+        }
+        if (sources.isEmpty()) {
+            return hot;
+        }
+        sources.add(hot.iterator());
+
+        Iterator<TransactionResponse> merged = new MergingIterator<>(sources, BY_ID);
+        List<TransactionResponse> page = new ArrayList<>(limit);
+        while (page.size() < limit && merged.hasNext()) {
+            page.add(merged.next());
+        }
+        return page;
+    }
+
+    /**
+     * Merges the card's archived transactions into {@code hot}, its open history cursor in id
+     * order. Closing the result closes {@code hot}.
+     */
+    public Stream<TransactionResponse> mergeHistory(Long cardId, Stream<TransactionResponse> hot) {
+        List<Iterator<TransactionResponse>> sources = new ArrayList<>();
+        for (ArchiveFile month : months.values()) {
+            Iterator<ArchivedTransaction> rows = month.rows(cardId, 0);
+            if (rows.hasNext()) {
+                sources.add(stream(rows).map(ArchivedTransaction::toResponse).iterator());
+            }
+        }
+        if (sources.isEmpty()) {
+            return hot;
+        }
+        sources.add(hot.iterator());
+        return stream(new MergingIterator<>(sources, BY_ID)).onClose(hot::close);
+    }
+
+    /**
+     * Merges archived transactions created in [{@code from}, {@code to}) into {@code hot}, the
+     * open statement cursor ordered by card and id. Closing the result closes {@code hot}.
+     */
+    public Stream<StatementLine> mergeStatement(Instant from, Instant to, Stream<StatementLine> hot) {
+        if (!from.isBefore(to)) {
+            return hot;
+        }
+        YearMonth first = YearMonth.from(from.atOffset(ZoneOffset.UTC));
+        YearMonth last = YearMonth.from(to.minusNanos(1).atOffset(ZoneOffset.UTC));
+        List<Iterator<StatementLine>> sources = new ArrayList<>();
+        for (ArchiveFile month : months.subMap(first, true, last, true).values()) {
+            sources.add(stream(month.all())
+                    .filter(row -> !row.createdAt().isBefore(from) && row.createdAt().isBefore(to))
+                    .map(ArchivedTransaction::toStatementLine)
+                    .iterator());
+        }
+        if (sources.isEmpty()) {
+            return hot;
+        }
+        sources.add(hot.iterator());
+        return stream(new MergingIterator<>(sources, BY_CARD_AND_ID)).onClose(hot::close);
+    }
+
+    Path pathOf(YearMonth month) {
+        return dir.resolve(PREFIX + month + SUFFIX);
+    }
+
+    ArchiveFile month(YearMonth month) {
+        return months.get(month);
+    }
+
+    // Makes a newly written file visible to reads, replacing the month's previous file
+    void publish(ArchiveFile file) {
+        publishing.lock();
+        try {
+            TreeMap<YearMonth, ArchiveFile> updated = new TreeMap<>(months);
+            updated.put(file.month(), file);
+            months = Collections.unmodifiableNavigableMap(updated);
+        } finally {
+            publishing.unlock();
+        }
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    private static <T> Stream<T> stream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
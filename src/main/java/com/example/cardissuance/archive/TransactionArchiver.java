@@ -0,0 +1,173 @@
+package com.example.cardissuance.archive;
+
+import com.example.cardissuance.limits.SpendLimiter;
+import com.example.cardissuance.repository.TransactionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Moves cold transactions out of the hot {@code transactions} table into the
+ * {@link TransactionArchive}, a month at a time, so the table and its indexes only hold the last
+ * {@code card.archive.min-age} or so of history however old the deployment is.
+ *
+ * <p>A month is archived once it ended more than {@code card.archive.min-age} ago. Only rows
+ * covered by their card's balance checkpoint move: verification never replays them, so the
+ * verifier keeps reading the hot table alone, and a card that has drifted keeps its history hot
+ * until it is repaired. The row with the highest ledger journal sequence also stays, since
+ * ledger recovery resumes after it.
+ *
+ * <p>Each month is one pass: the eligible rows, merged with the month's existing file if there is
+ * one, are written to a new file that is forced to disk and renamed over the old one. Only once
+ * reads see the new file are the rows deleted from the hot table, {@code card.archive.batch-size}
+ * ids per statement. A run interrupted before the deletes leaves rows on both sides, which reads
+ * return once, and the next run finishes the month.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private final TransactionArchive archive;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public TransactionArchiver(TransactionArchive archive,
+                               TransactionRepository transactionRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${card.archive.min-age:P90D}") Duration minAge,
+                               @Value("${card.archive.batch-size:1000}") int batchSize) {
+        // Windowed spend limits are enforced from the hot table
+        if (minAge.compareTo(SpendLimiter.MAX_WINDOW) < 0) {
+            throw new IllegalArgumentException("card.archive.min-age must be at least " + SpendLimiter.MAX_WINDOW);
+        }
+        this.archive = archive;
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${card.archive.interval:PT1H}",
+               initialDelayString = "${card.archive.interval:PT1H}")
+    void scheduledArchive() {
+        if (!archive.isEnabled()) {
+            return;
+        }
+        try {
+            archive();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Archiving failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Archives every month that ended more than {@code card.archive.min-age} ago.
+     *
+     * @return the number of transactions moved out of the hot table
+     */
+    public long archive() throws IOException {
+        if (!archive.isEnabled()) {
+            return 0;
+        }
+        running.lock();
+        try {
+            Instant oldest = transactionRepository.findMinCreatedAt();
+            if (oldest == null) {
+                return 0;
+            }
+            YearMonth cutoff = YearMonth.from(Instant.now().minus(minAge).atOffset(ZoneOffset.UTC));
+            Long maxJournalSeq = transactionRepository.findMaxJournalSeq();
+            long keepJournalSeq = maxJournalSeq == null ? Long.MAX_VALUE : maxJournalSeq;
+
+            long moved = 0;
+            for (YearMonth month = YearMonth.from(oldest.atOffset(ZoneOffset.UTC));
+                 month.isBefore(cutoff); month = month.plusMonths(1)) {
+                moved += archiveMonth(month, keepJournalSeq);
+            }
+            return moved;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private long archiveMonth(YearMonth month, long keepJournalSeq) throws IOException {
+        Instant from = month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        Path target = archive.pathOf(month);
+        Path partial = target.resolveSibling(target.getFileName() + ".tmp");
+        ArchiveFile existing = archive.month(month);
+
+        Files.createDirectories(archive.dir());
+        long written;
+        try {
+            written = readOnlyTemplate.execute(status -> {
+                try (Stream<ArchivedTransaction> hot = transactionRepository.streamArchivable(from, to, keepJournalSeq)) {
+                    Iterator<ArchivedTransaction> rows = hot.iterator();
+                    if (!rows.hasNext()) {
+                        return 0L;
+                    }
+                    if (existing != null) {
+                        rows = new MergingIterator<>(List.of(existing.all(), rows), ArchivedTransaction.BY_CARD_AND_ID);
+                    }
+                    return ArchiveFile.write(partial, month, rows);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(partial);
+            throw e.getCause();
+        }
+        if (written == 0) {
+            return 0;
+        }
+
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ArchiveFile file = ArchiveFile.open(target);
+        archive.publish(file);
+
+        long deleted = delete(file);
+        log.info("Archived {} transactions created in {} into {} ({} in total)",
+                deleted, month, target, file.rowCount());
+        return deleted;
+    }
+
+    // Ids already gone from the hot table, archived by an earlier run, delete nothing
+    private long delete(ArchiveFile file) {
+        long deleted = 0;
+        List<Long> ids = new ArrayList<>(batchSize);
+        for (Iterator<ArchivedTransaction> rows = file.all(); rows.hasNext(); ) {
+            ids.add(rows.next().id());
+            if (ids.size() == batchSize || !rows.hasNext()) {
+                deleted += transactionRepository.deleteByIds(ids);
+                ids.clear();
+            }
+        }
+        return deleted;
+    }
+}
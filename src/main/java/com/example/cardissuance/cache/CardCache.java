@@ -0,0 +1,140 @@
+package com.example.cardissuance.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-process LRU cache of {@link CardSnapshot}s, split into independently locked
+ * segments so readers of different cards don't contend.
+ *
+ * <p>Loads are guarded against racing invalidations: callers take a {@link #stamp(Long)} before
+ * reading the database and {@link #put(CardSnapshot, long)} is ignored if the card's segment was
+ * invalidated in between, so a pre-commit read can never overwrite a post-commit invalidation.
+ */
+@Component
+public class CardCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CardCache(@Value("${card.cache.max-size:10000}") int maxSize) {
+        int perSegment = Math.max(1, maxSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public CardSnapshot get(Long id) {
+        CardSnapshot snapshot = segmentFor(id).get(id);
+        if (snapshot == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return snapshot;
+    }
+
+    public long stamp(Long id) {
+        return segmentFor(id).invalidations;
+    }
+
+    public void put(CardSnapshot snapshot, long stamp) {
+        segmentFor(snapshot.getId()).put(snapshot, stamp);
+    }
+
+    public void invalidate(Long id) {
+        segmentFor(id).invalidate(id);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(Long id) {
+        return segments[Math.floorMod(Long.hashCode(id), SEGMENTS)];
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, CardSnapshot> entries;
+        private volatile long invalidations;
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CardSnapshot> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private CardSnapshot get(Long id) {
+            lock.lock();
+            try {
+                return entries.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(CardSnapshot snapshot, long stamp) {
+            lock.lock();
+            try {
+                if (invalidations == stamp) {
+                    entries.put(snapshot.getId(), snapshot);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void invalidate(Long id) {
+            lock.lock();
+            try {
+                invalidations++;
+                entries.remove(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
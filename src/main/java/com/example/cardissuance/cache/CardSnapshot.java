@@ -0,0 +1,49 @@
+package com.example.cardissuance.cache;
+
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable view of a card as last committed.
+ */
+public final class CardSnapshot {
+
+    private final Long id;
+    private final String cardholderName;
+    private final long balanceMinor;
+    private final Long version;
+    private final Instant createdAt;
+
+    public CardSnapshot(Long id, String cardholderName, long balanceMinor, Long version, Instant createdAt) {
+        this.id = id;
+        this.cardholderName = cardholderName;
+        this.balanceMinor = balanceMinor;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public static CardSnapshot of(Card card) {
+        return new CardSnapshot(card.getId(), card.getCardholderName(), card.getBalanceMinor(),
+                card.getVersion(), card.getCreatedAt());
+    }
+
+    public CardSnapshot withBalance(long balanceMinor) {
+        if (balanceMinor == this.balanceMinor) {
+            return this;
+        }
+        return new CardSnapshot(id, cardholderName, balanceMinor, version, createdAt);
+    }
+
+    public Long getId() { return id; }
+    public String getCardholderName() { return cardholderName; }
+    public BigDecimal getBalance() { return Money.toDecimal(balanceMinor); }
+
+    @JsonIgnore
+    public long getBalanceMinor() { return balanceMinor; }
+    public Long getVersion() { return version; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,150 @@
+package com.example.cardissuance.cache;
+
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.exception.IdempotencyKeyReusedException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-process front for Idempotency-Key lookups, keyed by card and key. Each entry keeps
+ * the type and amount of the request that claimed it, so a key reused for a different request is
+ * refused rather than answered with the first request's result. Entries expire
+ * after {@code card.idempotency.ttl} and the oldest are evicted beyond
+ * {@code card.idempotency.max-size}; the transaction row remains the durable record.
+ *
+ * <p>An entry is claimed with a pending future before the mutation runs, so a concurrent
+ * duplicate waits for the first request's outcome instead of applying the mutation again.
+ */
+@Component
+public class IdempotencyCache {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+
+    public IdempotencyCache(@Value("${card.idempotency.max-size:100000}") int maxSize,
+                            @Value("${card.idempotency.ttl:24h}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        int perSegment = Math.max(1, maxSize / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Returns the live entry for this key, or installs {@code claim} and returns null.
+     *
+     * @throws IdempotencyKeyReusedException if the live entry was claimed for another type or amount
+     */
+    public CompletableFuture<SpendResponse> putIfAbsent(Long cardId, String idempotencyKey, String type,
+                                                        long amountMinor, CompletableFuture<SpendResponse> claim) {
+        Key key = new Key(cardId, idempotencyKey);
+        Entry existing = segmentFor(key).putIfAbsent(key, new Entry(type, amountMinor, claim, System.nanoTime()));
+        if (existing == null) {
+            return null;
+        }
+        if (!existing.type().equals(type) || existing.amountMinor() != amountMinor) {
+            throw new IdempotencyKeyReusedException(idempotencyKey);
+        }
+        return existing.result();
+    }
+
+    /**
+     * Drops {@code claim}, if it is still the entry for this key, so the request can be retried.
+     */
+    public void remove(Long cardId, String idempotencyKey, CompletableFuture<SpendResponse> claim) {
+        Key key = new Key(cardId, idempotencyKey);
+        segmentFor(key).remove(key, claim);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[Math.floorMod(key.hashCode(), SEGMENTS)];
+    }
+
+    private record Key(Long cardId, String idempotencyKey) {
+    }
+
+    private record Entry(String type, long amountMinor, CompletableFuture<SpendResponse> result, long createdNanos) {
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Insertion order, so the head is always the oldest entry
+        private final LinkedHashMap<Key, Entry> entries;
+
+        private Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private Entry putIfAbsent(Key key, Entry claim) {
+            lock.lock();
+            try {
+                expire(claim.createdNanos());
+                Entry existing = entries.get(key);
+                if (existing != null) {
+                    return existing;
+                }
+                entries.put(key, claim);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(Key key, CompletableFuture<SpendResponse> claim) {
+            lock.lock();
+            try {
+                Entry existing = entries.get(key);
+                if (existing != null && existing.result() == claim) {
+                    entries.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expire(long now) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().createdNanos() < ttlNanos) {
+                    return;
+                }
+                it.remove();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.cardissuance.cache;
+
+/**
+ * The transaction row an Idempotency-Key was first used for, as read back to answer a replay
+ * the cache no longer holds.
+ */
+public record RecordedRequest(String type, Long amountMinor, Long balanceAfterMinor) {
+
+    public boolean matches(String type, long amountMinor) {
+        return this.type.equals(type) && this.amountMinor == amountMinor;
+    }
+}
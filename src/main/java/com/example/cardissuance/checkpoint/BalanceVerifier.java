@@ -0,0 +1,244 @@
+package com.example.cardissuance.checkpoint;
+
+import com.example.cardissuance.cache.CardCache;
+import com.example.cardissuance.dto.BalanceVerificationReport;
+import com.example.cardissuance.dto.BalanceVerificationReport.Drift;
+import com.example.cardissuance.exception.ServiceBusyException;
+import com.example.cardissuance.readmodel.CardReadModel;
+import com.example.cardissuance.repository.BalanceCheckpointRepository;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.service.BalanceEngine;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Checks every card's balance against its transactions. Card ids are split into ranges on a
+ * dedicated fork-join pool, and each range is replayed from the cards' checkpoints in a single
+ * read-only statement, so only the transactions since the last checkpoint are read and no card
+ * row is locked.
+ *
+ * <p>Consistent cards get their checkpoint moved forward to the newest transaction older than
+ * {@code card.checkpoint.settle-lag}. Ids are allocated before commit, so a younger transaction
+ * with a lower id may still be in flight, and a checkpoint past it would skip it for good.
+ * Drifted cards are reported, and repaired on request with a guarded update that gives way to
+ * any spend committed since the read. Repair is refused when the balance engine does not take
+ * its balances from the {@code cards} table.
+ */
+@Component
+public class BalanceVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceVerifier.class);
+
+    private final CardRepository cardRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final BalanceEngine balanceEngine;
+    private final CardCache cardCache;
+    private final CardReadModel readModel;
+    private final TransactionTemplate readOnlyTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final Duration settleLag;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public BalanceVerifier(CardRepository cardRepository,
+                           BalanceCheckpointRepository checkpointRepository,
+                           BalanceEngine balanceEngine,
+                           CardCache cardCache,
+                           CardReadModel readModel,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${card.verifier.parallelism:4}") int parallelism,
+                           @Value("${card.verifier.chunk-size:5000}") int chunkSize,
+                           @Value("${card.checkpoint.settle-lag:PT5M}") Duration settleLag) {
+        this.cardRepository = cardRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.balanceEngine = balanceEngine;
+        this.cardCache = cardCache;
+        this.readModel = readModel;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        // Bounded well below the connection pool, so spends always find a connection
+        this.pool = new ForkJoinPool(parallelism);
+        this.chunkSize = chunkSize;
+        this.settleLag = settleLag;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Periodic run: verifies and advances checkpoints, never repairs.
+     */
+    @Scheduled(fixedDelayString = "${card.checkpoint.interval:PT1H}",
+               initialDelayString = "${card.checkpoint.interval:PT1H}")
+    void checkpoint() {
+        try {
+            BalanceVerificationReport report = verify(false);
+            if (report.getDriftCount() > 0) {
+                log.warn("Balance verification found {} drifted cards out of {}",
+                        report.getDriftCount(), report.getCardsChecked());
+            }
+        } catch (ServiceBusyException e) {
+            log.info("Skipping scheduled checkpoint, a verification is already running");
+        }
+    }
+
+    /**
+     * Verifies every card and advances checkpoints of the consistent ones.
+     *
+     * @param repair set drifted balances to the replayed value
+     * @throws IllegalArgumentException if repair is requested and the balance engine does not accept it
+     * @throws ServiceBusyException if a verification is already running
+     */
+    public BalanceVerificationReport verify(boolean repair) {
+        if (repair && !balanceEngine.acceptsTableRepairs()) {
+            throw new IllegalArgumentException("Balance repair is not supported by the active card.engine");
+        }
+        if (!running.tryLock()) {
+            throw new ServiceBusyException();
+        }
+        try {
+            long start = System.nanoTime();
+            Tally tally = new Tally();
+            Long maxId = cardRepository.findMaxId();
+            if (maxId != null) {
+                Instant settledBefore = Instant.now().minus(settleLag);
+                pool.invoke(new RangeTask(1, maxId + 1, settledBefore, repair, tally));
+            }
+            BalanceVerificationReport report = tally.report(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            log.info("Verified {} cards ({} transactions replayed): {} drifted, {} repaired, {} checkpoints advanced in {} ms",
+                    report.getCardsChecked(), report.getTransactionsReplayed(), report.getDriftCount(),
+                    report.getRepaired(), report.getCheckpointsAdvanced(), report.getElapsedMillis());
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void verifyRange(long fromId, long toId, Instant settledBefore, boolean repair, Tally tally) {
+        List<CardReplay> cards = readOnlyTemplate.execute(
+                status -> checkpointRepository.replay(fromId, toId, settledBefore));
+        List<Advance> advances = new ArrayList<>();
+
+        for (CardReplay card : cards) {
+            tally.cards.increment();
+            tally.transactions.add(card.getReplayedCount());
+
+            Long base = card.getCheckpointMinor() != null ? card.getCheckpointMinor() : card.getOpeningMinor();
+            if (base == null) {
+                // Issued before opening balances were recorded, and never used: nothing to replay against
+                continue;
+            }
+
+            long expected = base + card.getReplayedMinor();
+            long balance = card.getBalanceMinor();
+            if (expected != balance) {
+                boolean repaired = repair && cardRepository.repairBalance(card.getCardId(), balance, expected) == 1;
+                if (repaired) {
+                    cardCache.invalidate(card.getCardId());
+                    readModel.markChanged(card.getCardId());
+                }
+                tally.drift(new Drift(card.getCardId(), balance, expected, repaired));
+                continue;
+            }
+
+            Long settledId = card.getSettledTransactionId();
+            Long firstUnsettled = card.getFirstUnsettledTransactionId();
+            if (settledId != null && (firstUnsettled == null || settledId < firstUnsettled)) {
+                advances.add(new Advance(card.getCardId(), base + card.getSettledMinor(), settledId));
+            }
+        }
+
+        if (!advances.isEmpty()) {
+            Instant now = Instant.now();
+            writeTemplate.executeWithoutResult(status -> {
+                for (Advance advance : advances) {
+                    checkpointRepository.upsert(advance.cardId(), advance.balanceMinor(), advance.lastTransactionId(), now);
+                }
+            });
+            tally.checkpoints.add(advances.size());
+        }
+    }
+
+    private final class RangeTask extends RecursiveAction {
+
+        private final long fromId;
+        private final long toId;
+        private final Instant settledBefore;
+        private final boolean repair;
+        private final Tally tally;
+
+        private RangeTask(long fromId, long toId, Instant settledBefore, boolean repair, Tally tally) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.settledBefore = settledBefore;
+            this.repair = repair;
+            this.tally = tally;
+        }
+
+        @Override
+        protected void compute() {
+            if (toId - fromId <= chunkSize) {
+                verifyRange(fromId, toId, settledBefore, repair, tally);
+                return;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            invokeAll(new RangeTask(fromId, middle, settledBefore, repair, tally),
+                    new RangeTask(middle, toId, settledBefore, repair, tally));
+        }
+    }
+
+    private record Advance(Long cardId, long balanceMinor, long lastTransactionId) {
+    }
+
+    private static final class Tally {
+
+        private final LongAdder cards = new LongAdder();
+        private final LongAdder transactions = new LongAdder();
+        private final LongAdder drifted = new LongAdder();
+        private final LongAdder repaired = new LongAdder();
+        private final LongAdder checkpoints = new LongAdder();
+        private final AtomicInteger listed = new AtomicInteger();
+        private final Queue<Drift> drifts = new ConcurrentLinkedQueue<>();
+
+        private void drift(Drift drift) {
+            drifted.increment();
+            if (drift.isRepaired()) {
+                repaired.increment();
+            }
+            if (listed.getAndIncrement() < BalanceVerificationReport.MAX_LISTED_DRIFTS) {
+                drifts.add(drift);
+            }
+        }
+
+        private BalanceVerificationReport report(long elapsedMillis) {
+            return new BalanceVerificationReport(cards.sum(), transactions.sum(), drifted.sum(),
+                    repaired.sum(), checkpoints.sum(), elapsedMillis, List.copyOf(drifts));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cardissuance.checkpoint;
+
+/**
+ * One card as read by the verifier, in a single statement so the card row and its
+ * transactions are from the same snapshot. Amounts in minor units.
+ */
+public interface CardReplay {
+
+    Long getCardId();
+
+    Long getBalanceMinor();
+
+    // Null when the card has no checkpoint yet
+    Long getCheckpointMinor();
+
+    Long getCheckpointTransactionId();
+
+    // Balance the card was issued with, or for older cards the balance before its first
+    // transaction; null when neither is known
+    Long getOpeningMinor();
+
+    // Sum of signed amounts after the checkpoint, and how many there were
+    Long getReplayedMinor();
+
+    Long getReplayedCount();
+
+    // The part of the replay old enough to be folded into a new checkpoint
+    Long getSettledMinor();
+
+    Long getSettledTransactionId();
+
+    // Lowest id after the checkpoint that is not settled yet, if any
+    Long getFirstUnsettledTransactionId();
+}
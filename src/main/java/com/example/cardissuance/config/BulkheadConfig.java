@@ -0,0 +1,32 @@
+package com.example.cardissuance.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "card.bulkhead.max-concurrent")
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final int maxConcurrent;
+    private final long waitMillis;
+
+    public BulkheadConfig(@Value("${card.bulkhead.max-concurrent}") int maxConcurrent,
+                          @Value("${card.bulkhead.wait-millis:1000}") long waitMillis) {
+        this.maxConcurrent = maxConcurrent;
+        this.waitMillis = waitMillis;
+    }
+
+    @Bean
+    public BulkheadInterceptor bulkheadInterceptor() {
+        return new BulkheadInterceptor(maxConcurrent, waitMillis);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor()).addPathPatterns("/cards/**");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cardissuance.config;
+
+import com.example.cardissuance.exception.ServiceBusyException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests inside the service and persistence tier. With virtual threads
+ * the servlet container no longer bounds concurrency, so without this every request would
+ * queue on the connection pool. Excess requests wait briefly, then get 503.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = BulkheadInterceptor.class.getName() + ".PERMIT";
+
+    private final Semaphore permits;
+    private final long waitMillis;
+
+    public BulkheadInterceptor(int maxConcurrent, long waitMillis) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        // Async dispatches of a streaming request already hold the permit
+        if (request.getAttribute(PERMIT) != null) {
+            return true;
+        }
+        if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+            throw new ServiceBusyException();
+        }
+        request.setAttribute(PERMIT, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT) != null) {
+            request.removeAttribute(PERMIT);
+            permits.release();
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.cardissuance.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs, e.g. the periodic balance checkpoint
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
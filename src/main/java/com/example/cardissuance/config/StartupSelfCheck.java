@@ -0,0 +1,98 @@
+package com.example.cardissuance.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Logs a warning at startup for each setting known to cost throughput: no JDBC batching,
+ * open-in-view holding connections through rendering, SQL logging, a pool that grows under load
+ * or fails slowly, and an in-memory or untuned H2 under the {@code production} profile. Nothing
+ * is changed; the application starts either way.
+ */
+@Component
+public class StartupSelfCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupSelfCheck.class);
+
+    private static final String HIBERNATE = "spring.jpa.properties.hibernate.";
+    private static final int MIN_BATCH_SIZE = 20;
+    private static final Duration MAX_CONNECTION_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Environment environment;
+    private final DataSource dataSource;
+
+    public StartupSelfCheck(Environment environment, DataSource dataSource) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void logWarnings() {
+        List<String> warnings = check();
+        for (String warning : warnings) {
+            log.warn("Self-check: {}", warning);
+        }
+        if (warnings.isEmpty()) {
+            log.info("Self-check: no throughput warnings");
+        }
+    }
+
+    public List<String> check() {
+        List<String> warnings = new ArrayList<>();
+
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            warnings.add("spring.jpa.open-in-view is on: every request holds its connection until the response is written");
+        }
+        int batchSize = environment.getProperty(HIBERNATE + "jdbc.batch_size", Integer.class, 0);
+        if (batchSize < MIN_BATCH_SIZE) {
+            warnings.add("hibernate.jdbc.batch_size is " + batchSize + ": grouped writes go out one statement at a time");
+        }
+        if (!environment.getProperty(HIBERNATE + "order_inserts", Boolean.class, false)
+                || !environment.getProperty(HIBERNATE + "order_updates", Boolean.class, false)) {
+            warnings.add("hibernate.order_inserts/order_updates are off: mixed inserts and updates break JDBC batches");
+        }
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)
+                || environment.getProperty(HIBERNATE + "generate_statistics", Boolean.class, false)) {
+            warnings.add("SQL logging or Hibernate statistics are on: every statement pays for it");
+        }
+
+        if (dataSource instanceof HikariDataSource pool) {
+            checkPool(pool, warnings);
+        }
+        return warnings;
+    }
+
+    private void checkPool(HikariDataSource pool, List<String> warnings) {
+        // Unset until the pool starts, and then the same as the maximum
+        if (pool.getMinimumIdle() >= 0 && pool.getMinimumIdle() < pool.getMaximumPoolSize()) {
+            warnings.add("connection pool is not fixed-size (minimum-idle " + pool.getMinimumIdle()
+                    + " < maximum-pool-size " + pool.getMaximumPoolSize() + "): bursts wait for new connections");
+        }
+        if (pool.getConnectionTimeout() > MAX_CONNECTION_TIMEOUT.toMillis()) {
+            warnings.add("connection-timeout is " + pool.getConnectionTimeout()
+                    + " ms: a saturated pool queues callers that long instead of failing fast");
+        }
+
+        String url = pool.getJdbcUrl();
+        if (url == null || !environment.acceptsProfiles(Profiles.of("production"))) {
+            return;
+        }
+        if (url.startsWith("jdbc:h2:mem:")) {
+            warnings.add("production profile on an in-memory database: data is lost on restart");
+        } else if (url.startsWith("jdbc:h2:") && !url.toUpperCase().contains(";CACHE_SIZE=")) {
+            warnings.add("H2 file database without CACHE_SIZE: the default page cache is 16 MB");
+        }
+    }
+}
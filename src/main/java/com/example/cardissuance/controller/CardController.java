@@ -1,63 +1,292 @@
 package com.example.cardissuance.controller;
 
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.checkpoint.BalanceVerifier;
+import com.example.cardissuance.dto.BalanceVerificationReport;
+import com.example.cardissuance.dto.BatchOperationRequest;
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.CardEvent;
+import com.example.cardissuance.dto.CardImportResult;
+import com.example.cardissuance.dto.CardLimitRequest;
+import com.example.cardissuance.dto.CardLimitResponse;
 import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.CardResponse;
+import com.example.cardissuance.dto.CardSummary;
 import com.example.cardissuance.dto.SpendRequest;
 import com.example.cardissuance.dto.SpendResponse;
 import com.example.cardissuance.dto.TopUpRequest;
+import com.example.cardissuance.dto.TransactionPage;
 import com.example.cardissuance.dto.TransactionResponse;
-import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.RollupGranularity;
+import com.example.cardissuance.export.StatementExporter;
+import com.example.cardissuance.importer.CardImporter;
+import com.example.cardissuance.importer.ImportRowReader;
+import com.example.cardissuance.outbox.CardEventFeed;
+import com.example.cardissuance.readmodel.ReadConsistency;
+import com.example.cardissuance.readmodel.ReadResult;
+import com.example.cardissuance.service.CardQueryService;
 import com.example.cardissuance.service.CardService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/cards")
 public class CardController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+    public static final String GZIP = "application/gzip";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String STALENESS_HEADER = "X-Staleness-Millis";
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    public static final int MAX_EVENT_WAIT_SECONDS = 60;
+
     private final CardService cardService;
+    private final CardQueryService cardQueryService;
+    private final CardImporter cardImporter;
+    private final StatementExporter statementExporter;
+    private final BalanceVerifier balanceVerifier;
+    private final CardEventFeed eventFeed;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter transactionWriter;
+    private final ObjectWriter importResultWriter;
 
-    public CardController(CardService cardService) {
+    public CardController(CardService cardService, CardQueryService cardQueryService, CardImporter cardImporter,
+                          StatementExporter statementExporter, BalanceVerifier balanceVerifier,
+                          CardEventFeed eventFeed, ObjectMapper objectMapper) {
         this.cardService = cardService;
+        this.cardQueryService = cardQueryService;
+        this.cardImporter = cardImporter;
+        this.statementExporter = statementExporter;
+        this.balanceVerifier = balanceVerifier;
+        this.eventFeed = eventFeed;
+        this.objectMapper = objectMapper;
+        this.transactionWriter = objectMapper.writerFor(TransactionResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.importResultWriter = objectMapper.writerFor(CardImportResult.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @PostMapping
-    public ResponseEntity<Card> createCard(@RequestBody CardRequest request) {
-        Card card = cardService.createCard(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(card);
+    public ResponseEntity<CardResponse> createCard(@RequestBody CardRequest request) {
+        CardResponse card = CardResponse.of(cardService.createCard(request));
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(card.eTag()).body(card);
+    }
+
+    // Bulk create from a CSV or NDJSON body; one NDJSON result per row, streamed as rows are inserted
+    @PostMapping(value = "/import", consumes = {CSV, NDJSON}, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> importCards(HttpServletRequest request) throws IOException {
+        // Opened here so a bad CSV header is a 400 rather than a broken stream
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(CSV));
+        ImportRowReader rows = csv
+                ? ImportRowReader.csv(request.getInputStream())
+                : ImportRowReader.ndjson(request.getInputStream(), objectMapper);
+
+        StreamingResponseBody body = out -> {
+            try (rows) {
+                cardImporter.importCards(rows, result -> {
+                    try {
+                        importResultWriter.writeValue(out, result);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 
     @PostMapping("/{id}/spend")
     public ResponseEntity<SpendResponse> spend(
             @PathVariable Long id,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody SpendRequest request) {
 
-        SpendResponse response = cardService.spend(id, request.getAmount());
+        SpendResponse response = cardService.spend(id, request.getAmount(), idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
+    // A matching If-None-Match gets 304 with no body; consistency=strong skips the read model
     @GetMapping("/{id}")
-    public ResponseEntity<Card> getCard(@PathVariable Long id) {
-        return ResponseEntity.ok(cardService.getCard(id));
+    public ResponseEntity<CardResponse> getCard(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "eventual") String consistency) {
+
+        ReadResult<CardSnapshot> read = cardQueryService.getCard(id, ReadConsistency.parse(consistency));
+        CardResponse card = CardResponse.of(read.value());
+        return ResponseEntity.ok()
+                .eTag(card.eTag())
+                .header(STALENESS_HEADER, Long.toString(read.stalenessMillis()))
+                .body(card);
     }
 
     @GetMapping("/{id}/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactions(@PathVariable Long id) {
-        return ResponseEntity.ok(cardService.getTransactions(id));
+    public ResponseEntity<List<TransactionResponse>> getTransactions(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "eventual") String consistency) {
+
+        ReadResult<TransactionPage> read = cardQueryService.getTransactions(
+                id, after, limit, ReadConsistency.parse(consistency));
+        TransactionPage page = read.value();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(STALENESS_HEADER, Long.toString(read.stalenessMillis()));
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    // Full history as newline-delimited JSON, streamed from a database cursor
+    @GetMapping(value = "/{id}/transactions", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@PathVariable Long id) {
+        cardService.requireCard(id);
+
+        StreamingResponseBody body = out -> cardService.streamTransactions(id, tx -> {
+            try {
+                transactionWriter.writeValue(out, tx);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().body(body);
+    }
+
+    // Every card's transactions over UTC days [from, to] as gzip'd CSV; defaults to yesterday
+    @GetMapping(value = "/transactions:export", produces = GZIP)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate start = from != null ? from : yesterday;
+        LocalDate end = to != null ? to : start;
+        StatementExporter.Export export = statementExporter.open(start, end);
+
+        StreamingResponseBody body = out -> {
+            try (export) {
+                export.writeTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(GZIP))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + start + "-" + end + ".csv.gz\"")
+                .body(body);
+    }
+
+    // Long poll: events after offset `after`, waiting up to `wait` seconds for the first one
+    @GetMapping("/events")
+    public Callable<ResponseEntity<List<CardEvent>>> pollEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "20") int wait) {
+
+        if (wait < 0 || wait > MAX_EVENT_WAIT_SECONDS) {
+            throw new IllegalArgumentException("Wait must be between 0 and " + MAX_EVENT_WAIT_SECONDS + " seconds");
+        }
+        return () -> {
+            List<CardEvent> events = eventFeed.read(after, limit, Duration.ofSeconds(wait));
+            long next = events.isEmpty() ? after : events.get(events.size() - 1).getOffset();
+            return ResponseEntity.ok().header(NEXT_CURSOR_HEADER, Long.toString(next)).body(events);
+        };
+    }
+
+    // Server-sent events from offset `after`, or from Last-Event-ID when the client reconnects
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+
+        CardEventFeed.Subscription subscription = eventFeed.subscribe(lastEventId != null ? lastEventId : after);
+        StreamingResponseBody body = out -> {
+            try (subscription) {
+                subscription.writeTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(body);
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<CardSummary> getSummary(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(cardService.getSummary(id, RollupGranularity.parse(granularity), from, to));
+    }
+
+    @GetMapping("/{id}/limits")
+    public ResponseEntity<CardLimitResponse> getLimits(@PathVariable Long id) {
+        return ResponseEntity.ok(cardService.getLimits(id));
+    }
+
+    @PutMapping("/{id}/limits")
+    public ResponseEntity<CardLimitResponse> setLimits(
+            @PathVariable Long id,
+            @RequestBody CardLimitRequest request) {
+
+        return ResponseEntity.ok(cardService.setLimits(id, request));
+    }
+
+    @DeleteMapping("/{id}/limits")
+    public ResponseEntity<Void> removeLimits(@PathVariable Long id) {
+        cardService.removeLimits(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{id}/topup")
     public ResponseEntity<SpendResponse> topUp(
         @PathVariable Long id,
+        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
         @RequestBody TopUpRequest request) {
 
     return ResponseEntity.ok(
-            cardService.topUp(id, request.getAmount())
+            cardService.topUp(id, request.getAmount(), idempotencyKey)
     );
     }
 
+    // Replays every card from its checkpoint; with repair=true drifted balances are corrected
+    @PostMapping("/balances:verify")
+    public ResponseEntity<BalanceVerificationReport> verifyBalances(
+            @RequestParam(defaultValue = "false") boolean repair) {
+
+        return ResponseEntity.ok(balanceVerifier.verify(repair));
+    }
+
+    @PostMapping("/operations:batch")
+    public ResponseEntity<List<BatchOperationResult>> applyBatch(
+            @RequestBody List<BatchOperationRequest> requests) {
+
+        return ResponseEntity.ok(cardService.applyBatch(requests));
+    }
+
 }
 
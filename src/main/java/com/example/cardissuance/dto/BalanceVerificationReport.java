@@ -0,0 +1,70 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of one verifier run. {@code drifts} lists at most the first
+ * {@link #MAX_LISTED_DRIFTS} cards whose balance disagrees with their transactions.
+ */
+public class BalanceVerificationReport {
+
+    public static final int MAX_LISTED_DRIFTS = 100;
+
+    private final long cardsChecked;
+    private final long transactionsReplayed;
+    private final long driftCount;
+    private final long repaired;
+    private final long checkpointsAdvanced;
+    private final long elapsedMillis;
+    private final List<Drift> drifts;
+
+    public BalanceVerificationReport(long cardsChecked, long transactionsReplayed, long driftCount,
+                                     long repaired, long checkpointsAdvanced, long elapsedMillis,
+                                     List<Drift> drifts) {
+        this.cardsChecked = cardsChecked;
+        this.transactionsReplayed = transactionsReplayed;
+        this.driftCount = driftCount;
+        this.repaired = repaired;
+        this.checkpointsAdvanced = checkpointsAdvanced;
+        this.elapsedMillis = elapsedMillis;
+        this.drifts = drifts;
+    }
+
+    public long getCardsChecked() { return cardsChecked; }
+    public long getTransactionsReplayed() { return transactionsReplayed; }
+    public long getDriftCount() { return driftCount; }
+    public long getRepaired() { return repaired; }
+    public long getCheckpointsAdvanced() { return checkpointsAdvanced; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<Drift> getDrifts() { return drifts; }
+
+    public static class Drift {
+
+        private final Long cardId;
+        private final long balanceMinor;
+        private final long expectedMinor;
+        private final boolean repaired;
+
+        public Drift(Long cardId, long balanceMinor, long expectedMinor, boolean repaired) {
+            this.cardId = cardId;
+            this.balanceMinor = balanceMinor;
+            this.expectedMinor = expectedMinor;
+            this.repaired = repaired;
+        }
+
+        public Long getCardId() { return cardId; }
+        public BigDecimal getBalance() { return Money.toDecimal(balanceMinor); }
+        public BigDecimal getExpectedBalance() { return Money.toDecimal(expectedMinor); }
+        public boolean isRepaired() { return repaired; }
+
+        @JsonIgnore
+        public long getBalanceMinor() { return balanceMinor; }
+
+        @JsonIgnore
+        public long getExpectedMinor() { return expectedMinor; }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cardissuance.dto;
+
+import java.math.BigDecimal;
+
+public class BatchOperationRequest {
+
+    private Long cardId;
+    private String type; // SPEND / TOPUP
+    private BigDecimal amount;
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setCardId(Long cardId) {
+        this.cardId = cardId;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.exception.SpendLimitExceededException;
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+public class BatchOperationResult {
+
+    public static final String CARD_NOT_FOUND = "CARD_NOT_FOUND";
+    public static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+    public static final String INVALID_OPERATION = "INVALID_OPERATION";
+    public static final String LIMIT_EXCEEDED = "LIMIT_EXCEEDED";
+
+    private final Long cardId;
+    private final Long balanceMinor;
+    private final String errorCode;
+    private final String message;
+
+    private BatchOperationResult(Long cardId, Long balanceMinor, String errorCode, String message) {
+        this.cardId = cardId;
+        this.balanceMinor = balanceMinor;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public static BatchOperationResult success(Long cardId, long balanceMinor) {
+        return new BatchOperationResult(cardId, balanceMinor, null, null);
+    }
+
+    public static BatchOperationResult failure(Long cardId, String errorCode, String message) {
+        return new BatchOperationResult(cardId, null, errorCode, message);
+    }
+
+    public static BatchOperationResult failure(Long cardId, RuntimeException error) {
+        String errorCode;
+        if (error instanceof CardNotFoundException) {
+            errorCode = CARD_NOT_FOUND;
+        } else if (error instanceof InsufficientBalanceException) {
+            errorCode = INSUFFICIENT_BALANCE;
+        } else if (error instanceof SpendLimitExceededException) {
+            errorCode = LIMIT_EXCEEDED;
+        } else {
+            errorCode = INVALID_OPERATION;
+        }
+        return failure(cardId, errorCode, error.getMessage());
+    }
+
+    public Long getCardId() { return cardId; }
+    public BigDecimal getBalance() { return balanceMinor == null ? null : Money.toDecimal(balanceMinor); }
+    @JsonIgnore
+    public Long getBalanceMinor() { return balanceMinor; }
+    public String getErrorCode() { return errorCode; }
+    public String getMessage() { return message; }
+}
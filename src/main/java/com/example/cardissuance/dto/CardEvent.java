@@ -0,0 +1,53 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.entity.OutboxEvent;
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A published card mutation. {@code offset} orders the stream and is what consumers resume
+ * from; delivery is at least once, so {@code transactionId} identifies duplicates.
+ */
+public class CardEvent {
+
+    private final long offset;
+    private final long transactionId;
+    private final long cardId;
+    private final String type;
+    private final long amountMinor;
+    private final long balanceAfterMinor;
+    private final Instant createdAt;
+
+    public CardEvent(Long offset, Long transactionId, Long cardId, String type,
+                     Long amountMinor, Long balanceAfterMinor, Instant createdAt) {
+        this.offset = offset;
+        this.transactionId = transactionId;
+        this.cardId = cardId;
+        this.type = type;
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.createdAt = createdAt;
+    }
+
+    public static CardEvent of(OutboxEvent event) {
+        return new CardEvent(event.getPublishedOffset(), event.getTransactionId(), event.getCardId(),
+                event.getType(), event.getAmountMinor(), event.getBalanceAfterMinor(), event.getCreatedAt());
+    }
+
+    public long getOffset() { return offset; }
+    public long getTransactionId() { return transactionId; }
+    public long getCardId() { return cardId; }
+    public String getType() { return type; }
+    public BigDecimal getAmount() { return Money.toDecimal(amountMinor); }
+    public BigDecimal getBalanceAfter() { return Money.toDecimal(balanceAfterMinor); }
+    public Instant getCreatedAt() { return createdAt; }
+
+    @JsonIgnore
+    public long getAmountMinor() { return amountMinor; }
+
+    @JsonIgnore
+    public long getBalanceAfterMinor() { return balanceAfterMinor; }
+}
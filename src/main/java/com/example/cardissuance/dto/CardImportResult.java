@@ -0,0 +1,35 @@
+package com.example.cardissuance.dto;
+
+/**
+ * Outcome of one row of {@code POST /cards/import}: the created card id, or an error.
+ */
+public class CardImportResult {
+
+    public static final String INVALID_ROW = "INVALID_ROW";
+    public static final String INSERT_FAILED = "INSERT_FAILED";
+
+    private final long line;
+    private final Long id;
+    private final String errorCode;
+    private final String message;
+
+    private CardImportResult(long line, Long id, String errorCode, String message) {
+        this.line = line;
+        this.id = id;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public static CardImportResult created(long line, Long id) {
+        return new CardImportResult(line, id, null, null);
+    }
+
+    public static CardImportResult failure(long line, String errorCode, String message) {
+        return new CardImportResult(line, null, errorCode, message);
+    }
+
+    public long getLine() { return line; }
+    public Long getId() { return id; }
+    public String getErrorCode() { return errorCode; }
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,44 @@
+package com.example.cardissuance.dto;
+
+import java.math.BigDecimal;
+
+// Omitted fields are not enforced
+public class CardLimitRequest {
+
+    private BigDecimal maxPerTransaction;
+    private Long windowSeconds;
+    private BigDecimal maxWindowAmount;
+    private Integer maxWindowCount;
+
+    public BigDecimal getMaxPerTransaction() {
+        return maxPerTransaction;
+    }
+
+    public void setMaxPerTransaction(BigDecimal maxPerTransaction) {
+        this.maxPerTransaction = maxPerTransaction;
+    }
+
+    public Long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public void setWindowSeconds(Long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+    }
+
+    public BigDecimal getMaxWindowAmount() {
+        return maxWindowAmount;
+    }
+
+    public void setMaxWindowAmount(BigDecimal maxWindowAmount) {
+        this.maxWindowAmount = maxWindowAmount;
+    }
+
+    public Integer getMaxWindowCount() {
+        return maxWindowCount;
+    }
+
+    public void setMaxWindowCount(Integer maxWindowCount) {
+        this.maxWindowCount = maxWindowCount;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.entity.CardLimit;
+import com.example.cardissuance.money.Money;
+
+import java.math.BigDecimal;
+
+public class CardLimitResponse {
+
+    private final CardLimit limit;
+
+    public CardLimitResponse(CardLimit limit) {
+        this.limit = limit;
+    }
+
+    public Long getCardId() { return limit.getCardId(); }
+
+    public BigDecimal getMaxPerTransaction() { return toDecimal(limit.getMaxPerTransactionMinor()); }
+
+    public Long getWindowSeconds() { return limit.getWindowSeconds(); }
+
+    public BigDecimal getMaxWindowAmount() { return toDecimal(limit.getMaxWindowAmountMinor()); }
+
+    public Integer getMaxWindowCount() { return limit.getMaxWindowCount(); }
+
+    private static BigDecimal toDecimal(Long minor) {
+        return minor == null ? null : Money.toDecimal(minor);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.json.CardResponseSerializer;
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Wire view of a card for {@code POST /cards} and {@code GET /cards/{id}}, copied out of the
+ * entity or snapshot so serialisation never touches Hibernate state.
+ */
+@JsonSerialize(using = CardResponseSerializer.class)
+public final class CardResponse {
+
+    private final Long id;
+    private final String cardholderName;
+    private final long balanceMinor;
+    private final Long version;
+    private final Instant createdAt;
+
+    private CardResponse(Long id, String cardholderName, long balanceMinor, Long version, Instant createdAt) {
+        this.id = id;
+        this.cardholderName = cardholderName;
+        this.balanceMinor = balanceMinor;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public static CardResponse of(Card card) {
+        return new CardResponse(card.getId(), card.getCardholderName(), card.getBalanceMinor(),
+                card.getVersion(), card.getCreatedAt());
+    }
+
+    public static CardResponse of(CardSnapshot snapshot) {
+        return new CardResponse(snapshot.getId(), snapshot.getCardholderName(), snapshot.getBalanceMinor(),
+                snapshot.getVersion(), snapshot.getCreatedAt());
+    }
+
+    /**
+     * Strong ETag of this representation. The balance is part of it because with the ledger
+     * engine the row version only moves when the projection catches up, after the balance has.
+     */
+    public String eTag() {
+        return "\"" + (version == null ? 0 : version) + "-" + balanceMinor + "\"";
+    }
+
+    public Long getId() { return id; }
+    public String getCardholderName() { return cardholderName; }
+    public long getBalanceMinor() { return balanceMinor; }
+    public BigDecimal getBalance() { return Money.toDecimal(balanceMinor); }
+    public Long getVersion() { return version; }
+    public Instant getCreatedAt() { return createdAt; }
+}
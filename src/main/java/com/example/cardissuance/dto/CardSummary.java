@@ -0,0 +1,62 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.entity.CardRollup;
+import com.example.cardissuance.entity.RollupGranularity;
+import com.example.cardissuance.money.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Spend and top-up totals of one card over a date range, with the non-empty buckets that make
+ * them up.
+ */
+public class CardSummary {
+
+    private final Long cardId;
+    private final RollupGranularity granularity;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<RollupBucket> buckets;
+    private long spendMinor;
+    private long spendCount;
+    private long topUpMinor;
+    private long topUpCount;
+
+    public CardSummary(Long cardId, RollupGranularity granularity, LocalDate from, LocalDate to,
+                       List<CardRollup> rollups) {
+        this.cardId = cardId;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = new ArrayList<>(rollups.size());
+        for (CardRollup rollup : rollups) {
+            buckets.add(new RollupBucket(rollup));
+            spendMinor += rollup.getSpendMinor();
+            spendCount += rollup.getSpendCount();
+            topUpMinor += rollup.getTopUpMinor();
+            topUpCount += rollup.getTopUpCount();
+        }
+    }
+
+    public Long getCardId() { return cardId; }
+
+    public String getGranularity() { return granularity.name().toLowerCase(Locale.ROOT); }
+
+    public LocalDate getFrom() { return from; }
+
+    public LocalDate getTo() { return to; }
+
+    public BigDecimal getSpendTotal() { return Money.toDecimal(spendMinor); }
+
+    public long getSpendCount() { return spendCount; }
+
+    public BigDecimal getTopUpTotal() { return Money.toDecimal(topUpMinor); }
+
+    public long getTopUpCount() { return topUpCount; }
+
+    public List<RollupBucket> getBuckets() { return buckets; }
+}
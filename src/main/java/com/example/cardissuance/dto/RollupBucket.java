@@ -0,0 +1,35 @@
+package com.example.cardissuance.dto;
+
+import com.example.cardissuance.entity.CardRollup;
+import com.example.cardissuance.money.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class RollupBucket {
+
+    private final LocalDate start;
+    private final long spendMinor;
+    private final long spendCount;
+    private final long topUpMinor;
+    private final long topUpCount;
+
+    public RollupBucket(CardRollup rollup) {
+        this.start = rollup.getBucketStart();
+        this.spendMinor = rollup.getSpendMinor();
+        this.spendCount = rollup.getSpendCount();
+        this.topUpMinor = rollup.getTopUpMinor();
+        this.topUpCount = rollup.getTopUpCount();
+    }
+
+    // First day of the bucket, UTC
+    public LocalDate getStart() { return start; }
+
+    public BigDecimal getSpendTotal() { return Money.toDecimal(spendMinor); }
+
+    public long getSpendCount() { return spendCount; }
+
+    public BigDecimal getTopUpTotal() { return Money.toDecimal(topUpMinor); }
+
+    public long getTopUpCount() { return topUpCount; }
+}
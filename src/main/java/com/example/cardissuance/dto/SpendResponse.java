@@ -1,22 +1,34 @@
 package com.example.cardissuance.dto;
 
+import com.example.cardissuance.json.SpendResponseSerializer;
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.math.BigDecimal;
 
+@JsonSerialize(using = SpendResponseSerializer.class)
 public class SpendResponse {
     private Long id;
-    private BigDecimal remainingBalance;
+    private long remainingBalanceMinor;
 
-    public SpendResponse(Long id, BigDecimal remainingBalance) {
+    public SpendResponse(Long id, long remainingBalanceMinor) {
         this.id = id;
-        this.remainingBalance = remainingBalance;
+        this.remainingBalanceMinor = remainingBalanceMinor;
     }
 
     public Long getId() {
         return id;
     }
 
+    @JsonIgnore
+    public long getRemainingBalanceMinor() {
+        return remainingBalanceMinor;
+    }
+
+    // Converted only when serialised
     public BigDecimal getRemainingBalance() {
-        return remainingBalance;
+        return Money.toDecimal(remainingBalanceMinor);
     }
     
 }
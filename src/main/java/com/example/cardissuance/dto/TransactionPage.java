@@ -0,0 +1,19 @@
+package com.example.cardissuance.dto;
+
+import java.util.List;
+
+public class TransactionPage {
+
+    private final List<TransactionResponse> items;
+    private final Long nextCursor;
+
+    public TransactionPage(List<TransactionResponse> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionResponse> getItems() { return items; }
+
+    // Pass as "after" to fetch the next page; null on the last page
+    public Long getNextCursor() { return nextCursor; }
+}
@@ -1,21 +1,26 @@
 package com.example.cardissuance.dto;
 
+import com.example.cardissuance.money.Money;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 
 public class TransactionResponse {
 
-    private BigDecimal amount;
+    private Long id;
+    private long amountMinor;
     private String type;
     private Instant createdAt;
 
-    public TransactionResponse(BigDecimal amount, String type, Instant createdAt) {
-        this.amount = amount;
+    public TransactionResponse(Long id, Long amountMinor, String type, Instant createdAt) {
+        this.id = id;
+        this.amountMinor = amountMinor;
         this.type = type;
         this.createdAt = createdAt;
     }
 
-    public BigDecimal getAmount() { return amount; }
+    public Long getId() { return id; }
+    public BigDecimal getAmount() { return Money.toDecimal(amountMinor); }
     public String getType() { return type; }
     public Instant getCreatedAt() { return createdAt; }
 }
@@ -0,0 +1,46 @@
+package com.example.cardissuance.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Verified balance of one card as of transaction {@code lastTransactionId}: the balance is
+ * the opening balance plus every transaction of the card with an id up to and including it.
+ * Replaying only the transactions after it gives the current balance.
+ */
+@Entity
+@Table(name = "balance_checkpoints")
+public class BalanceCheckpoint {
+
+    @Id
+    private Long cardId;
+
+    @Column(nullable = false)
+    private long balanceMinor;
+
+    @Column(nullable = false)
+    private long lastTransactionId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    protected BalanceCheckpoint() {
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
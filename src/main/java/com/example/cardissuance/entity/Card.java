@@ -1,5 +1,8 @@
 package com.example.cardissuance.entity;
 
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -8,14 +11,24 @@ import java.time.Instant;
 @Table(name = "cards")
 public class Card {
 
+    // Ids come from a pooled sequence rather than IDENTITY so Hibernate can batch inserts; the
+    // transaction and outbox sequences use the same size. Each cards_seq value V reserves ids
+    // (V - ID_ALLOCATION_SIZE, V]
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String cardholderName;
 
-    @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal balance;
+    @Column(nullable = false)
+    private long balanceMinor;
+
+    // Balance the card was issued with, the base balance verification replays from until the
+    // first checkpoint; null on cards issued before it was recorded
+    private Long openingBalanceMinor;
 
     private Instant createdAt;
 
@@ -30,14 +43,28 @@ public class Card {
         return cardholderName;
     }
 
+    @JsonIgnore
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
     public BigDecimal getBalance() {
-        return balance;
+        return Money.toDecimal(balanceMinor);
+    }
+
+    @JsonIgnore
+    public Long getOpeningBalanceMinor() {
+        return openingBalanceMinor;
     }
 
     public Instant getCreatedAt() {
         return createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -46,8 +73,12 @@ public class Card {
         this.cardholderName = cardholderName;
     }
 
-    public void setBalance(BigDecimal balance) {
-        this.balance = balance;
+    public void setBalanceMinor(long balanceMinor) {
+        this.balanceMinor = balanceMinor;
+    }
+
+    public void setOpeningBalanceMinor(Long openingBalanceMinor) {
+        this.openingBalanceMinor = openingBalanceMinor;
     }
 
     public void setCreatedAt(Instant createdAt) {
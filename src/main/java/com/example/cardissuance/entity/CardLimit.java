@@ -0,0 +1,55 @@
+package com.example.cardissuance.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Spend limits of one card. A null limit is not enforced; the window limits apply to spends
+ * within the last {@code windowSeconds}.
+ */
+@Entity
+@Table(name = "card_limits")
+public class CardLimit {
+
+    @Id
+    private Long cardId;
+
+    private Long maxPerTransactionMinor;
+
+    private Long windowSeconds;
+
+    private Long maxWindowAmountMinor;
+
+    private Integer maxWindowCount;
+
+    protected CardLimit() {
+    }
+
+    public CardLimit(Long cardId, Long maxPerTransactionMinor, Long windowSeconds,
+                     Long maxWindowAmountMinor, Integer maxWindowCount) {
+        this.cardId = cardId;
+        this.maxPerTransactionMinor = maxPerTransactionMinor;
+        this.windowSeconds = windowSeconds;
+        this.maxWindowAmountMinor = maxWindowAmountMinor;
+        this.maxWindowCount = maxWindowCount;
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public Long getMaxPerTransactionMinor() {
+        return maxPerTransactionMinor;
+    }
+
+    public Long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public Long getMaxWindowAmountMinor() {
+        return maxWindowAmountMinor;
+    }
+
+    public Integer getMaxWindowCount() {
+        return maxWindowCount;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.cardissuance.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Running spend and top-up totals of one card over one calendar bucket, maintained in the same
+ * database transaction as the {@link Transaction} rows they summarise.
+ */
+@Entity
+@Table(name = "card_rollups")
+@IdClass(CardRollup.Key.class)
+public class CardRollup {
+
+    @Id
+    private Long cardId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private RollupGranularity granularity;
+
+    // First day of the bucket, UTC
+    @Id
+    private LocalDate bucketStart;
+
+    @Column(nullable = false)
+    private long spendMinor;
+
+    @Column(nullable = false)
+    private long spendCount;
+
+    @Column(nullable = false)
+    private long topUpMinor;
+
+    @Column(nullable = false)
+    private long topUpCount;
+
+    protected CardRollup() {
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getSpendMinor() {
+        return spendMinor;
+    }
+
+    public long getSpendCount() {
+        return spendCount;
+    }
+
+    public long getTopUpMinor() {
+        return topUpMinor;
+    }
+
+    public long getTopUpCount() {
+        return topUpCount;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long cardId;
+        private RollupGranularity granularity;
+        private LocalDate bucketStart;
+
+        protected Key() {
+        }
+
+        public Key(Long cardId, RollupGranularity granularity, LocalDate bucketStart) {
+            this.cardId = cardId;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(cardId, key.cardId)
+                    && granularity == key.granularity
+                    && Objects.equals(bucketStart, key.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cardId, granularity, bucketStart);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cardissuance.entity;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A card mutation waiting to be published, written in the same database transaction as its
+ * {@link Transaction} row. The relay assigns {@code publishedOffset} when it publishes the event.
+ */
+@Entity
+@Table(name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_events_published_offset", columnList = "published_offset", unique = true),
+                @Index(name = "idx_outbox_events_created_at", columnList = "created_at")
+        })
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private long transactionId;
+
+    @Column(nullable = false)
+    private long cardId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false)
+    private long amountMinor;
+
+    @Column(nullable = false)
+    private long balanceAfterMinor;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Position in the published stream; null until published
+    private Long publishedOffset;
+
+    protected OutboxEvent() {
+    }
+
+    public OutboxEvent(Transaction transaction) {
+        this.transactionId = transaction.getId();
+        this.cardId = transaction.getCardId();
+        this.type = transaction.getType();
+        this.amountMinor = transaction.getAmountMinor();
+        this.balanceAfterMinor = transaction.getBalanceAfterMinor();
+        this.createdAt = transaction.getCreatedAt();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    public long getCardId() {
+        return cardId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getPublishedOffset() {
+        return publishedOffset;
+    }
+
+    public void setPublishedOffset(Long publishedOffset) {
+        this.publishedOffset = publishedOffset;
+    }
+}
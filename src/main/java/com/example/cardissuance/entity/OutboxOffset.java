@@ -0,0 +1,32 @@
+package com.example.cardissuance.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * The last offset the outbox relay has given out, in a single row. Published outbox rows are
+ * purged after their retention, so the offsets still in {@code outbox_events} cannot say where
+ * numbering has reached.
+ */
+@Entity
+@Table(name = "outbox_offsets")
+public class OutboxOffset {
+
+    public static final long ID = 1;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long lastOffset;
+
+    protected OutboxOffset() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getLastOffset() {
+        return lastOffset;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cardissuance.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Bucket size of a {@link CardRollup}. Buckets are calendar periods in UTC, identified by their
+ * first day.
+ */
+public enum RollupGranularity {
+
+    DAY,
+    MONTH;
+
+    public static RollupGranularity parse(String value) {
+        for (RollupGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Granularity must be day or month");
+    }
+
+    public LocalDate bucketOf(Instant at) {
+        return bucketOf(LocalDate.ofInstant(at, ZoneOffset.UTC));
+    }
+
+    public LocalDate bucketOf(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+}
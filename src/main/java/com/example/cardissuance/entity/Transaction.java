@@ -1,15 +1,21 @@
 package com.example.cardissuance.entity;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_card_id_id", columnList = "card_id, id"),
+                @Index(name = "idx_transactions_created_at", columnList = "created_at")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_transactions_card_id_idempotency_key",
+                columnNames = {"card_id", "idempotency_key"}))
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -17,37 +23,78 @@ public class Transaction {
     private Card card;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private long amountMinor;
 
     @Column(nullable = false)
     private String type; // SPEND / TOPUP
 
+    // Card balance right after this mutation, so an idempotent replay can answer from this row
+    @Column(nullable = false)
+    private long balanceAfterMinor;
+
+    // Client-supplied Idempotency-Key, unique per card
+    @Column(length = 64)
+    private String idempotencyKey;
+
     @Column(nullable = false)
     private Instant createdAt;
 
+    // Sequence of the ledger journal record this row was projected from, if any
+    @Column(unique = true)
+    private Long journalSeq;
+
     protected Transaction() {
     }
 
-    public Transaction(Card card, BigDecimal amount, String type) {
+    public Transaction(Card card, long amountMinor, String type, long balanceAfterMinor) {
+        this(card, amountMinor, type, balanceAfterMinor, Instant.now());
+    }
+
+    public Transaction(Card card, long amountMinor, String type, long balanceAfterMinor, Instant createdAt) {
         this.card = card;
-        this.amount = amount;
+        this.amountMinor = amountMinor;
         this.type = type;
-        this.createdAt = Instant.now();
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.createdAt = createdAt;
     }
 
     public Long getId() {
         return id;
     }
 
-    public BigDecimal getAmount() {
-        return amount;
+    public Long getCardId() {
+        return card.getId();
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
     }
 
     public String getType() {
         return type;
     }
 
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public Long getJournalSeq() {
+        return journalSeq;
+    }
+
+    public void setJournalSeq(Long journalSeq) {
+        this.journalSeq = journalSeq;
+    }
 }
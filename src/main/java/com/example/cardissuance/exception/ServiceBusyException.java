@@ -0,0 +1,8 @@
+package com.example.cardissuance.exception;
+
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException() {
+        super("Server busy. Please retry.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.cardissuance.exception;
+
+public class SpendLimitExceededException extends RuntimeException {
+
+    public SpendLimitExceededException(String limit) {
+        super("Spend limit exceeded: " + limit);
+    }
+}
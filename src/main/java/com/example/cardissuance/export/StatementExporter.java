@@ -0,0 +1,174 @@
+package com.example.cardissuance.export;
+
+import com.example.cardissuance.archive.TransactionArchive;
+import com.example.cardissuance.exception.ServiceBusyException;
+import com.example.cardissuance.money.Money;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.CardMetrics;
+import com.example.cardissuance.service.CardMetrics.Operation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip'd CSV statement of every transaction created on a range of UTC days, ordered by card and
+ * id, for nightly reconciliation. Rows come from one read-only cursor and are written out as
+ * they are read, so memory use does not depend on the size of the range. Reads take no row
+ * locks, and only one export runs at a time, so an export holds at most one pooled connection.
+ * Days in archived months are merged in from the archive files.
+ */
+@Component
+public class StatementExporter {
+
+    public static final String HEADER = "card_id,transaction_id,type,amount,balance_after,created_at\n";
+
+    private static final Logger log = LoggerFactory.getLogger(StatementExporter.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Semaphore permit = new Semaphore(1);
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive archive;
+    private final TransactionTemplate readOnlyTemplate;
+    private final CardMetrics metrics;
+
+    public StatementExporter(TransactionRepository transactionRepository,
+                             TransactionArchive archive,
+                             PlatformTransactionManager transactionManager,
+                             CardMetrics metrics) {
+        this.transactionRepository = transactionRepository;
+        this.archive = archive;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reserves the exporter for transactions created from {@code from} to {@code to}, inclusive.
+     * Checked up front, so a caller can still answer with an error status before streaming.
+     *
+     * @throws ServiceBusyException if another export is running
+     */
+    public Export open(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (!permit.tryAcquire()) {
+            throw new ServiceBusyException();
+        }
+        return new Export(from, to);
+    }
+
+    /**
+     * Writes the statement to {@code target}, replacing it only once the whole file is on disk.
+     *
+     * @return the number of transactions written
+     */
+    public long exportToFile(LocalDate from, LocalDate to, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+
+        long rows;
+        try (Export export = open(from, to);
+             FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            rows = export.writeTo(Channels.newOutputStream(channel));
+            channel.force(false);
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Exported {} transactions from {} to {} into {}", rows, from, to, target);
+        return rows;
+    }
+
+    // Fixed two decimals (12.50, not 12.5), as reconciliation tools expect
+    private static String amount(long minor) {
+        return BigDecimal.valueOf(minor, Money.SCALE).toPlainString();
+    }
+
+    public final class Export implements AutoCloseable {
+
+        private final LocalDate from;
+        private final LocalDate to;
+        private boolean closed;
+
+        private Export(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Streams the statement into {@code out} and finishes the gzip stream, leaving
+         * {@code out} open.
+         *
+         * @return the number of transactions written
+         */
+        public long writeTo(OutputStream out) throws IOException {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            gzip.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+            long rows;
+            try {
+                rows = metrics.record(Operation.EXPORT, () -> readOnlyTemplate.execute(status -> write(gzip)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            gzip.finish();
+            gzip.flush();
+            return rows;
+        }
+
+        private long write(OutputStream gzip) {
+            StringBuilder line = new StringBuilder(128);
+            long count = 0;
+            Instant start = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+            Instant end = to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            try (Stream<StatementLine> rows = archive.mergeStatement(start, end,
+                    transactionRepository.streamStatement(start, end))) {
+                for (StatementLine row : (Iterable<StatementLine>) rows::iterator) {
+                    line.setLength(0);
+                    line.append(row.cardId()).append(',')
+                            .append(row.id()).append(',')
+                            .append(row.type()).append(',')
+                            .append(amount(row.amountMinor())).append(',')
+                            .append(amount(row.balanceAfterMinor())).append(',')
+                            .append(row.createdAt()).append('\n');
+                    gzip.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.cardissuance.export;
+
+import java.time.Instant;
+
+/**
+ * One transaction as exported for reconciliation. Amounts in minor units.
+ */
+public record StatementLine(Long cardId,
+                            Long id,
+                            String type,
+                            Long amountMinor,
+                            Long balanceAfterMinor,
+                            Instant createdAt) {
+}
@@ -0,0 +1,132 @@
+package com.example.cardissuance.importer;
+
+import com.example.cardissuance.dto.CardImportResult;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.service.CardMetrics;
+import com.example.cardissuance.service.CardMetrics.Operation;
+import com.example.cardissuance.service.CardService;
+
+import jakarta.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk card creation for {@code POST /cards/import}. Rows are read one at a time and inserted
+ * in chunks of {@code card.import.batch-size}, each chunk one database transaction sent as a
+ * single JDBC batch. Ids come from the pooled {@code cards_seq}, so a chunk needs one sequence
+ * call per {@link Card#ID_ALLOCATION_SIZE} cards. At most one chunk is held in memory, however
+ * large the body is.
+ *
+ * <p>Chunks commit independently: if the client goes away part-way, the rows already reported
+ * as created stay created.
+ */
+@Component
+public class CardImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CardImporter.class);
+
+    private final CardRepository cardRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CardMetrics metrics;
+    private final int batchSize;
+
+    public CardImporter(CardRepository cardRepository,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        CardMetrics metrics,
+                        @Value("${card.import.batch-size:1000}") int batchSize) {
+        this.cardRepository = cardRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every row and hands one result per row to {@code sink}, in input order.
+     *
+     * @return the number of cards created
+     */
+    public long importCards(ImportRowReader rows, Consumer<CardImportResult> sink) throws IOException {
+        List<PendingRow> chunk = new ArrayList<>(batchSize);
+        long created = 0;
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            chunk.add(prepare(row));
+            if (chunk.size() == batchSize) {
+                created += flush(chunk, sink);
+            }
+        }
+        created += flush(chunk, sink);
+        return created;
+    }
+
+    private static PendingRow prepare(ImportRow row) {
+        if (row.error() != null) {
+            return new PendingRow(row.line(), null, row.error());
+        }
+        try {
+            return new PendingRow(row.line(), CardService.newCard(row.request()), null);
+        } catch (IllegalArgumentException e) {
+            return new PendingRow(row.line(), null, e.getMessage());
+        }
+    }
+
+    private long flush(List<PendingRow> chunk, Consumer<CardImportResult> sink) {
+        List<Card> cards = new ArrayList<>(chunk.size());
+        for (PendingRow row : chunk) {
+            if (row.card() != null) {
+                cards.add(row.card());
+            }
+        }
+
+        boolean inserted = true;
+        if (!cards.isEmpty()) {
+            try {
+                insert(cards);
+            } catch (RuntimeException e) {
+                log.warn("Import of {} cards from line {} failed", cards.size(), chunk.get(0).line(), e);
+                inserted = false;
+            }
+        }
+
+        for (PendingRow row : chunk) {
+            if (row.error() != null) {
+                sink.accept(CardImportResult.failure(row.line(), CardImportResult.INVALID_ROW, row.error()));
+            } else if (!inserted) {
+                sink.accept(CardImportResult.failure(row.line(), CardImportResult.INSERT_FAILED,
+                        "Cards could not be saved"));
+            } else {
+                sink.accept(CardImportResult.created(row.line(), row.card().getId()));
+            }
+        }
+        chunk.clear();
+        return inserted ? cards.size() : 0;
+    }
+
+    private void insert(List<Card> cards) {
+        metrics.record(Operation.IMPORT_BATCH, () -> transactionTemplate.execute(status -> {
+            // Only for this session: the whole chunk goes out as one JDBC batch
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            cardRepository.saveAll(cards);
+            cardRepository.flush();
+            return null;
+        }));
+    }
+
+    private record PendingRow(long line, Card card, String error) {
+    }
+}
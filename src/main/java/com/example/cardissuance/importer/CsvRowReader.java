@@ -0,0 +1,122 @@
+package com.example.cardissuance.importer;
+
+import com.example.cardissuance.dto.CardRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 style CSV: comma separated, fields optionally double-quoted with {@code ""} as an
+ * escaped quote. Quoted fields may not span lines. Columns other than the two it needs are
+ * ignored.
+ */
+final class CsvRowReader implements ImportRowReader {
+
+    private static final String NAME_COLUMN = "cardholderName";
+    private static final String BALANCE_COLUMN = "initialBalance";
+
+    private final BufferedReader reader;
+    private final int nameIndex;
+    private final int balanceIndex;
+    private long line;
+
+    CsvRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String header = reader.readLine();
+        line = 1;
+        List<String> columns = header == null ? List.of() : split(stripBom(header));
+        this.nameIndex = indexOf(columns, NAME_COLUMN);
+        this.balanceIndex = indexOf(columns, BALANCE_COLUMN);
+        if (nameIndex < 0 || balanceIndex < 0) {
+            throw new IllegalArgumentException(
+                    "CSV header must name " + NAME_COLUMN + " and " + BALANCE_COLUMN + " columns");
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        List<String> fields;
+        try {
+            fields = split(text);
+        } catch (IllegalArgumentException e) {
+            return ImportRow.unparseable(line, e.getMessage());
+        }
+        if (fields.size() <= Math.max(nameIndex, balanceIndex)) {
+            return ImportRow.unparseable(line, "Expected at least " + (Math.max(nameIndex, balanceIndex) + 1)
+                    + " fields but found " + fields.size());
+        }
+
+        CardRequest request = new CardRequest();
+        request.setCardholderName(fields.get(nameIndex).isEmpty() ? null : fields.get(nameIndex));
+        String balance = fields.get(balanceIndex).trim();
+        if (!balance.isEmpty()) {
+            try {
+                request.setInitialBalance(new BigDecimal(balance));
+            } catch (NumberFormatException e) {
+                return ImportRow.unparseable(line, "Invalid initial balance: " + balance);
+            }
+        }
+        return ImportRow.parsed(line, request);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    static List<String> split(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int indexOf(List<String> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String stripBom(String header) {
+        return header.startsWith("\uFEFF") ? header.substring(1) : header;
+    }
+}
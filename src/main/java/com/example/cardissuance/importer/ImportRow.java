@@ -0,0 +1,18 @@
+package com.example.cardissuance.importer;
+
+import com.example.cardissuance.dto.CardRequest;
+
+/**
+ * One row of an import body: the parsed request, or why it could not be parsed.
+ * {@code line} is 1-based and counts the CSV header and blank lines.
+ */
+public record ImportRow(long line, CardRequest request, String error) {
+
+    static ImportRow parsed(long line, CardRequest request) {
+        return new ImportRow(line, request, null);
+    }
+
+    static ImportRow unparseable(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+}
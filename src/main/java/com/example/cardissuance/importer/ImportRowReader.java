@@ -0,0 +1,41 @@
+package com.example.cardissuance.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pulls import rows one at a time from a request body, so only the current line is in memory.
+ */
+public interface ImportRowReader extends Closeable {
+
+    /**
+     * The next row, or null at the end of the body.
+     */
+    ImportRow next() throws IOException;
+
+    /**
+     * CSV with a header row naming {@code cardholderName} and {@code initialBalance}.
+     *
+     * @throws IllegalArgumentException if the header is missing either column
+     */
+    static ImportRowReader csv(InputStream body) throws IOException {
+        return new CsvRowReader(reader(body));
+    }
+
+    /**
+     * One {@code CardRequest} JSON object per line.
+     */
+    static ImportRowReader ndjson(InputStream body, ObjectMapper objectMapper) {
+        return new NdjsonRowReader(reader(body), objectMapper);
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.cardissuance.json;
+
+import com.example.cardissuance.dto.CardResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link CardResponse} field by field instead of through bean introspection. Field names
+ * are encoded once; the output is the same as the default bean serialisation.
+ */
+public class CardResponseSerializer extends StdSerializer<CardResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString CARDHOLDER_NAME = new SerializedString("cardholderName");
+    private static final SerializableString BALANCE = new SerializedString("balance");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+
+    public CardResponseSerializer() {
+        super(CardResponse.class);
+    }
+
+    @Override
+    public void serialize(CardResponse card, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(card, 5);
+        gen.writeFieldName(ID);
+        writeLong(gen, card.getId());
+        gen.writeFieldName(CARDHOLDER_NAME);
+        gen.writeString(card.getCardholderName());
+        gen.writeFieldName(BALANCE);
+        MoneyJson.writeAmount(gen, card.getBalanceMinor());
+        gen.writeFieldName(VERSION);
+        writeLong(gen, card.getVersion());
+        gen.writeFieldName(CREATED_AT);
+        // Through the provider so the configured java.time format applies
+        provider.defaultSerializeValue(card.getCreatedAt(), gen);
+        gen.writeEndObject();
+    }
+
+    static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+}
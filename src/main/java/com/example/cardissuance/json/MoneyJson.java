@@ -0,0 +1,23 @@
+package com.example.cardissuance.json;
+
+import com.example.cardissuance.money.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+final class MoneyJson {
+
+    // The generator copies the characters out before returning, so one buffer per thread will do
+    private static final ThreadLocal<char[]> SCRATCH =
+            ThreadLocal.withInitial(() -> new char[Money.MAX_DECIMAL_CHARS]);
+
+    private MoneyJson() {
+    }
+
+    // Same text as serialising Money.toDecimal, without the BigDecimal and String in between
+    static void writeAmount(JsonGenerator gen, long minor) throws IOException {
+        char[] digits = SCRATCH.get();
+        int start = Money.writeDecimal(minor, digits);
+        gen.writeNumber(digits, start, digits.length - start);
+    }
+}
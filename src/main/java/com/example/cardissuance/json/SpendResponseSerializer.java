@@ -0,0 +1,33 @@
+package com.example.cardissuance.json;
+
+import com.example.cardissuance.dto.SpendResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes the spend and top-up response with pre-encoded field names.
+ */
+public class SpendResponseSerializer extends StdSerializer<SpendResponse> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString REMAINING_BALANCE = new SerializedString("remainingBalance");
+
+    public SpendResponseSerializer() {
+        super(SpendResponse.class);
+    }
+
+    @Override
+    public void serialize(SpendResponse response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(response, 2);
+        gen.writeFieldName(ID);
+        CardResponseSerializer.writeLong(gen, response.getId());
+        gen.writeFieldName(REMAINING_BALANCE);
+        MoneyJson.writeAmount(gen, response.getRemainingBalanceMinor());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.cardissuance.ledger;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.BalanceEngine;
+import com.example.cardissuance.service.CardOperation;
+import com.example.cardissuance.service.RollupWriter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shards cards across single-threaded partitions by card id. Each partition owns the
+ * authoritative balance of its cards in memory and applies mutations in arrival order, so
+ * there are no optimistic-lock conflicts.
+ *
+ * <p>Card creations and mutations are acknowledged once they are durable in the journal. The
+ * partition thread only appends; the caller then waits for the fsync, which it shares with every
+ * other caller that appended in the meantime. The {@code cards} and {@code transactions} tables
+ * are updated asynchronously, and entries not yet in them are replayed on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "card.engine", havingValue = "ledger")
+public class LedgerBalanceEngine implements BalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerBalanceEngine.class);
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerPartition[] partitions;
+    private final LedgerJournal journal;
+    private final LedgerWriter writer;
+    private final int writeBatchSize;
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextCardId = 1;
+    private long lastCardId;
+
+    public LedgerBalanceEngine(CardRepository cardRepository,
+                               TransactionRepository transactionRepository,
+                               RollupWriter rollupWriter,
+                               OutboxWriter outboxWriter,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${card.ledger.partitions:4}") int partitionCount,
+                               @Value("${card.ledger.journal-path:data/ledger.journal}") String journalPath,
+                               @Value("${card.ledger.write-batch-size:500}") int writeBatchSize) throws IOException {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.writeBatchSize = writeBatchSize;
+
+        this.partitions = new LedgerPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new LedgerPartition(i);
+        }
+        this.journal = new LedgerJournal(Path.of(journalPath));
+        this.writer = new LedgerWriter(journal, cardRepository, transactionRepository, rollupWriter,
+                outboxWriter, new TransactionTemplate(transactionManager), writeBatchSize);
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        long applied = orZero(transactionRepository.findMaxJournalSeq());
+        // A fresh journal file must not reuse sequence numbers that are already projected
+        journal.startAfter(applied);
+        List<LedgerEntry> pending = journal.readAfter(applied);
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} unapplied ledger entries", pending.size());
+            for (int from = 0; from < pending.size(); from += writeBatchSize) {
+                writer.write(pending.subList(from, Math.min(from + writeBatchSize, pending.size())));
+            }
+        }
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException, InterruptedException {
+        for (LedgerPartition partition : partitions) {
+            partition.shutdown();
+        }
+        writer.shutdown();
+        journal.close();
+    }
+
+    /**
+     * Assigns the card an id from a block of {@code cards_seq}, journals its creation and returns
+     * once that is durable. The row is inserted by the writer.
+     */
+    @Override
+    public Card createCard(Card card) {
+        Long cardId = allocateCardId();
+        card.setId(cardId);
+        card.setCreatedAt(card.getCreatedAt().truncatedTo(ChronoUnit.MILLIS));
+
+        LedgerPartition partition = partitionFor(cardId);
+        long position = partition.execute(() -> {
+            long end = journal.append(LedgerEntry.creation(cardId, card.getCardholderName(),
+                    card.getBalanceMinor(), card.getCreatedAt()), writer::enqueue);
+            partition.put(cardId, card.getBalanceMinor());
+            return end;
+        });
+        journal.sync(position);
+        return card;
+    }
+
+    @Override
+    public SpendResponse spend(Long cardId, long amount, String idempotencyKey) {
+        return apply(new CardOperation(cardId, "SPEND", amount, idempotencyKey));
+    }
+
+    @Override
+    public SpendResponse topUp(Long cardId, long amount, String idempotencyKey) {
+        return apply(new CardOperation(cardId, "TOPUP", amount, idempotencyKey));
+    }
+
+    /**
+     * Appends every operation first, then waits for one fsync covering all of them.
+     */
+    @Override
+    public List<BatchOperationResult> applyAll(List<CardOperation> operations) {
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        long position = 0;
+        for (CardOperation operation : operations) {
+            try {
+                Applied applied = append(operation);
+                position = Math.max(position, applied.position());
+                results.add(BatchOperationResult.success(operation.cardId(), applied.balance()));
+            } catch (CardNotFoundException | InsufficientBalanceException e) {
+                results.add(BatchOperationResult.failure(operation.cardId(), e));
+            }
+        }
+        journal.sync(position);
+        return results;
+    }
+
+    @Override
+    public long currentBalance(Long cardId, long storedBalance) {
+        Long balance = partitionFor(cardId).balance(cardId);
+        return balance != null ? balance : storedBalance;
+    }
+
+    @Override
+    public CardSnapshot pendingCard(Long cardId) {
+        return writer.pendingCard(cardId);
+    }
+
+    // The partitions keep the drifted balance and the next projected entry writes it back
+    @Override
+    public boolean acceptsTableRepairs() {
+        return false;
+    }
+
+    @Override
+    public int pendingWrites() {
+        return writer.pending();
+    }
+
+    private SpendResponse apply(CardOperation operation) {
+        Applied applied = append(operation);
+        journal.sync(applied.position());
+        return new SpendResponse(operation.cardId(), applied.balance());
+    }
+
+    // Runs on the partition thread; the new balance is visible to readers before it is durable
+    private Applied append(CardOperation operation) {
+        Long cardId = operation.cardId();
+        LedgerPartition partition = partitionFor(cardId);
+        return partition.execute(() -> {
+            Long balance = partition.balance(cardId);
+            if (balance == null) {
+                // First touch: every earlier entry for this card was applied during recovery
+                balance = cardRepository.findById(cardId)
+                        .map(Card::getBalanceMinor)
+                        .orElseThrow(() -> new CardNotFoundException(cardId));
+            }
+
+            long updated = operation.applyTo(balance);
+            long position = journal.append(LedgerEntry.mutation(cardId, operation.type(), operation.amount(),
+                    updated, operation.idempotencyKey()), writer::enqueue);
+            partition.put(cardId, updated);
+            return new Applied(updated, position);
+        });
+    }
+
+    // Ids (V - ID_ALLOCATION_SIZE, V] for each sequence value V, as Hibernate's pooled optimizer
+    private Long allocateCardId() {
+        idLock.lock();
+        try {
+            if (nextCardId > lastCardId) {
+                lastCardId = cardRepository.nextCardIdBlock();
+                nextCardId = Math.max(1, lastCardId - Card.ID_ALLOCATION_SIZE + 1);
+            }
+            return nextCardId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private LedgerPartition partitionFor(Long cardId) {
+        return partitions[Math.floorMod(cardId.longValue(), partitions.length)];
+    }
+
+    private record Applied(long balance, long position) {
+    }
+}
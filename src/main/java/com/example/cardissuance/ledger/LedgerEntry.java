@@ -0,0 +1,38 @@
+package com.example.cardissuance.ledger;
+
+import java.time.Instant;
+
+/**
+ * One record of the ledger journal: a card creation or an applied balance mutation. Amounts in
+ * minor units; {@code idempotencyKey} is null when the client sent none and
+ * {@code cardholderName} is only set on {@code CREATE}.
+ */
+record LedgerEntry(long seq,
+                   long cardId,
+                   String type,
+                   long amount,
+                   long balanceAfter,
+                   String idempotencyKey,
+                   String cardholderName,
+                   Instant createdAt) {
+
+    static final String CREATE = "CREATE";
+
+    static LedgerEntry creation(long cardId, String cardholderName, long balance, Instant createdAt) {
+        return new LedgerEntry(0, cardId, CREATE, balance, balance, null, cardholderName, createdAt);
+    }
+
+    // Millisecond precision, as stored in the journal, so replayed rows match live ones
+    static LedgerEntry mutation(long cardId, String type, long amount, long balanceAfter, String idempotencyKey) {
+        return new LedgerEntry(0, cardId, type, amount, balanceAfter, idempotencyKey, null,
+                Instant.ofEpochMilli(System.currentTimeMillis()));
+    }
+
+    boolean isCreate() {
+        return CREATE.equals(type);
+    }
+
+    LedgerEntry withSeq(long seq) {
+        return new LedgerEntry(seq, cardId, type, amount, balanceAfter, idempotencyKey, cardholderName, createdAt);
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.cardissuance.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of {@link LedgerEntry} records in a memory-mapped file, mapped one
+ * {@code chunkSize} region at a time as it grows.
+ *
+ * <p>Appending only copies the record into the mapping. Durability is a separate
+ * {@link #sync(long)} that forces everything appended so far, so concurrent callers waiting on
+ * the same range share one fsync.
+ *
+ * <p>Record layout: payload length (int), payload, CRC32 of length and payload (int). The unused
+ * tail of the file is zero, so a zero length marks the end. A torn record at the tail (crash
+ * mid-write) fails its checksum and is truncated on open.
+ */
+final class LedgerJournal implements Closeable {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // Strings are length-prefixed UTF-8; the cardholder name dominates the maximum
+    private static final int MAX_STRING_BYTES = 1024;
+    private static final int MAX_RECORD = 2048;
+    private static final int FRAMING = 4 + 4;
+
+    private static final byte SPEND = 0;
+    private static final byte TOPUP = 1;
+    private static final byte CREATE = 2;
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD);
+    private final CRC32 crc = new CRC32();
+    private volatile Mapping mapping;
+    private volatile long written;
+    private volatile long durable;
+    private long lastSeq;
+
+    LedgerJournal(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    LedgerJournal(Path path, int chunkSize) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.chunkSize = chunkSize;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long validLength = scan(entry -> lastSeq = entry.seq());
+        channel.truncate(validLength);
+        this.written = validLength;
+        this.durable = validLength;
+        this.mapping = map(validLength - validLength % chunkSize);
+    }
+
+    /**
+     * Numbers new entries after {@code seq} if the journal is behind it, e.g. when a fresh file
+     * follows one whose entries are all applied.
+     */
+    void startAfter(long seq) {
+        appendLock.lock();
+        try {
+            lastSeq = Math.max(lastSeq, seq);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Assigns the next sequence number, copies the record into the mapping and hands it to
+     * {@code onAppended} while still holding the append lock, so consumers observe entries in
+     * sequence order. The entry is not durable until {@link #sync(long)} reaches the returned
+     * position.
+     */
+    long append(LedgerEntry draft, Consumer<LedgerEntry> onAppended) {
+        appendLock.lock();
+        try {
+            LedgerEntry entry = draft.withSeq(lastSeq + 1);
+            int length = encode(entry);
+
+            Mapping current = mapping;
+            if (written + length > current.start() + chunkSize) {
+                current = roll();
+            }
+            current.buffer().put((int) (written - current.start()), record.array(), 0, length);
+            written += length;
+            lastSeq = entry.seq();
+            onAppended.accept(entry);
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns once everything up to {@code position} is on disk. One caller forces the whole
+     * appended range while the others wait on the lock and then find their range already durable.
+     */
+    void sync(long position) {
+        if (durable >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (durable < position) {
+                Mapping current = mapping;
+                // Chunks before the current one were forced when it was mapped
+                long from = Math.max(durable, current.start());
+                long to = Math.min(written, current.start() + chunkSize);
+                if (to > from) {
+                    current.buffer().force((int) (from - current.start()), (int) (to - from));
+                }
+                durable = Math.max(durable, to);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    void syncAll() {
+        sync(written);
+    }
+
+    List<LedgerEntry> readAfter(long seq) throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        scan(entry -> {
+            if (entry.seq() > seq) {
+                entries.add(entry);
+            }
+        });
+        return entries;
+    }
+
+    long lastSeq() {
+        appendLock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            mapping.buffer().force();
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Called with the append lock held
+    private Mapping roll() throws IOException {
+        Mapping previous = mapping;
+        previous.buffer().force();
+        long start = previous.start() + chunkSize;
+        // Skip the unused end of the previous chunk; scan stops at its zero length
+        written = start;
+        mapping = map(start);
+        return mapping;
+    }
+
+    private Mapping map(long start) throws IOException {
+        return new Mapping(start, channel.map(FileChannel.MapMode.READ_WRITE, start, chunkSize));
+    }
+
+    private long scan(Consumer<LedgerEntry> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_RECORD);
+        long size = channel.size();
+        long position = 0;
+        while (position + FRAMING <= size) {
+            long chunkEnd = position - position % chunkSize + chunkSize;
+            int length = chunkEnd - position < FRAMING ? 0 : readLength(buffer, position);
+            if (length == 0 && position % chunkSize != 0) {
+                // Zero padding at the end of a chunk; records continue in the next one
+                if (chunkEnd + FRAMING <= size && readLength(buffer, chunkEnd) > 0) {
+                    position = chunkEnd;
+                    continue;
+                }
+                return position;
+            }
+            if (length <= 0 || length > MAX_RECORD - FRAMING || position + FRAMING + length > chunkEnd) {
+                return position;
+            }
+
+            buffer.limit(FRAMING + length);
+            readFully(buffer, position);
+            crc.reset();
+            crc.update(buffer.array(), 0, 4 + length);
+            if (buffer.getInt(4 + length) != (int) crc.getValue()) {
+                return position;
+            }
+            consumer.accept(decode(buffer.position(4)));
+            position += FRAMING + length;
+        }
+        return position;
+    }
+
+    private int readLength(ByteBuffer buffer, long position) throws IOException {
+        buffer.clear().limit(4);
+        readFully(buffer, position);
+        return buffer.getInt(0);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal at " + position);
+            }
+        }
+    }
+
+    // Encodes into the shared record buffer; called with the append lock held
+    private int encode(LedgerEntry entry) {
+        record.clear();
+        record.putInt(0);
+        record.putLong(entry.seq());
+        record.put(typeCode(entry.type()));
+        record.putLong(entry.cardId());
+        record.putLong(entry.amount());
+        record.putLong(entry.balanceAfter());
+        record.putLong(entry.createdAt().toEpochMilli());
+        putString(entry.idempotencyKey());
+        putString(entry.cardholderName());
+
+        int length = record.position() - 4;
+        record.putInt(0, length);
+        crc.reset();
+        crc.update(record.array(), 0, 4 + length);
+        record.putInt((int) crc.getValue());
+        return record.position();
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            record.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long for the ledger journal");
+        }
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private static LedgerEntry decode(ByteBuffer payload) {
+        long seq = payload.getLong();
+        String type = typeName(payload.get());
+        long cardId = payload.getLong();
+        long amount = payload.getLong();
+        long balanceAfter = payload.getLong();
+        Instant createdAt = Instant.ofEpochMilli(payload.getLong());
+        String idempotencyKey = getString(payload);
+        String cardholderName = getString(payload);
+        return new LedgerEntry(seq, cardId, type, amount, balanceAfter, idempotencyKey, cardholderName, createdAt);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        short length = payload.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    private static byte typeCode(String type) {
+        return switch (type) {
+            case "SPEND" -> SPEND;
+            case "TOPUP" -> TOPUP;
+            case LedgerEntry.CREATE -> CREATE;
+            default -> throw new IllegalArgumentException("Unknown ledger entry type " + type);
+        };
+    }
+
+    private static String typeName(byte code) {
+        return switch (code) {
+            case SPEND -> "SPEND";
+            case TOPUP -> "TOPUP";
+            default -> LedgerEntry.CREATE;
+        };
+    }
+
+    private record Mapping(long start, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.cardissuance.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single-threaded shard of the ledger. Only the partition thread mutates {@code balances};
+ * other threads may read them.
+ */
+final class LedgerPartition {
+
+    private final ExecutorService executor;
+    private final Map<Long, Long> balances = new ConcurrentHashMap<>();
+
+    LedgerPartition(int index) {
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-partition-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    <T> T execute(Callable<T> command) {
+        try {
+            return executor.submit(command).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger partition", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    Long balance(Long cardId) {
+        return balances.get(cardId);
+    }
+
+    void put(Long cardId, long balance) {
+        balances.put(cardId, balance);
+    }
+
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.cardissuance.ledger;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.RollupWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projects journaled entries into the {@code cards} and {@code transactions} tables in batches,
+ * off the request path. Entries are written in the order they were enqueued, and each batch is
+ * one database transaction, so after a crash every entry up to the highest projected
+ * {@code journal_seq} is in the tables and nothing after it is. A batch that cannot be written
+ * whole, including one with an entry for a card that has no row, is retried rather than
+ * skipped, which holds back every entry behind it.
+ */
+final class LedgerWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+    // Cards created in the journal whose row is not committed yet
+    private final Map<Long, CardSnapshot> pendingCards = new ConcurrentHashMap<>();
+    private final LedgerJournal journal;
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final RollupWriter rollupWriter;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    LedgerWriter(LedgerJournal journal,
+                 CardRepository cardRepository,
+                 TransactionRepository transactionRepository,
+                 RollupWriter rollupWriter,
+                 OutboxWriter outboxWriter,
+                 TransactionTemplate transactionTemplate,
+                 int batchSize) {
+        this.journal = journal;
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.rollupWriter = rollupWriter;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, "ledger-writer");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void enqueue(LedgerEntry entry) {
+        if (entry.isCreate()) {
+            pendingCards.put(entry.cardId(), new CardSnapshot(entry.cardId(), entry.cardholderName(),
+                    entry.balanceAfter(), null, entry.createdAt()));
+        }
+        queue.add(entry);
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    CardSnapshot pendingCard(Long cardId) {
+        return pendingCards.get(cardId);
+    }
+
+    void write(List<LedgerEntry> batch) {
+        // Never let the tables get ahead of what the journal can replay
+        journal.syncAll();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            insertCreatedCards(batch);
+
+            Set<Long> cardIds = new HashSet<>();
+            for (LedgerEntry entry : batch) {
+                if (!entry.isCreate()) {
+                    cardIds.add(entry.cardId());
+                }
+            }
+
+            Map<Long, Card> cards = new HashMap<>();
+            for (Card card : cardRepository.findAllById(cardIds)) {
+                cards.put(card.getId(), card);
+            }
+
+            List<Transaction> rows = new ArrayList<>(batch.size());
+            for (LedgerEntry entry : batch) {
+                if (entry.isCreate()) {
+                    continue;
+                }
+                Card card = cards.get(entry.cardId());
+                if (card == null) {
+                    // The entry was acknowledged to its caller: roll the batch back and keep retrying it
+                    // rather than lose it, and let nothing behind it get ahead
+                    throw new IllegalStateException(
+                            "Ledger entry " + entry.seq() + " is for card " + entry.cardId() + ", which has no row");
+                }
+                card.setBalanceMinor(entry.balanceAfter());
+
+                Transaction transaction = new Transaction(
+                        card, entry.amount(), entry.type(), entry.balanceAfter(), entry.createdAt());
+                transaction.setJournalSeq(entry.seq());
+                transaction.setIdempotencyKey(entry.idempotencyKey());
+                rows.add(transaction);
+            }
+            transactionRepository.saveAll(rows);
+            rollupWriter.record(rows);
+            outboxWriter.record(rows);
+        });
+
+        for (LedgerEntry entry : batch) {
+            if (entry.isCreate()) {
+                pendingCards.remove(entry.cardId());
+            }
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // A replayed CREATE may already have its row; the id was assigned when it was journaled
+    private void insertCreatedCards(List<LedgerEntry> batch) {
+        Map<Long, LedgerEntry> creations = new LinkedHashMap<>();
+        for (LedgerEntry entry : batch) {
+            if (entry.isCreate()) {
+                creations.put(entry.cardId(), entry);
+            }
+        }
+        if (creations.isEmpty()) {
+            return;
+        }
+
+        for (Card existing : cardRepository.findAllById(creations.keySet())) {
+            creations.remove(existing.getId());
+        }
+        for (LedgerEntry entry : creations.values()) {
+            cardRepository.insertCard(entry.cardId(), entry.cardholderName(), entry.balanceAfter(), entry.createdAt());
+        }
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void writeWithRetry(List<LedgerEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                write(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // Still in the journal; replayed on next start
+                    log.error("Dropping {} ledger entries on shutdown", batch.size(), e);
+                    return;
+                }
+                log.warn("Ledger write of {} entries failed, retrying", batch.size(), e);
+                TimeUnit.SECONDS.sleep(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.cardissuance.limits;
+
+import java.time.Instant;
+
+/**
+ * A spend row, as read back to rebuild the in-memory windows.
+ */
+public record RecentSpend(Long cardId, Long amountMinor, Instant createdAt) {
+}
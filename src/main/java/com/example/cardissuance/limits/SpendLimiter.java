@@ -0,0 +1,190 @@
+package com.example.cardissuance.limits;
+
+import com.example.cardissuance.entity.CardLimit;
+import com.example.cardissuance.exception.SpendLimitExceededException;
+import com.example.cardissuance.repository.CardLimitRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Enforces {@link CardLimit}s on spends from memory. Every limited card has a {@link SpendWindow}
+ * guarded by its own lock. A spend reserves its amount in the window before it runs and releases
+ * it if it fails, so concurrent spends can never overshoot a limit together. Cards without
+ * limits cost one map lookup.
+ *
+ * <p>Limits and windows are loaded from the database once all singletons exist, before the
+ * server accepts requests, so windows include spends made before a restart. Only spends of cards
+ * with a windowed limit are read, streamed rather than collected.
+ */
+@Component
+public class SpendLimiter implements SmartInitializingSingleton {
+
+    public static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private static final Logger log = LoggerFactory.getLogger(SpendLimiter.class);
+
+    private final Map<Long, CardState> states = new ConcurrentHashMap<>();
+    private final CardLimitRepository limitRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTemplate;
+
+    public SpendLimiter(CardLimitRepository limitRepository, TransactionRepository transactionRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.limitRepository = limitRepository;
+        this.transactionRepository = transactionRepository;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long maxWindowSeconds = 0;
+        for (CardLimit limit : limitRepository.findAll()) {
+            states.put(limit.getCardId(), new CardState(limit));
+            if (limit.getWindowSeconds() != null) {
+                maxWindowSeconds = Math.max(maxWindowSeconds, limit.getWindowSeconds());
+            }
+        }
+        if (maxWindowSeconds == 0) {
+            return;
+        }
+
+        Instant since = Instant.now().minusSeconds(maxWindowSeconds);
+        long replayed = readOnlyTemplate.execute(status -> {
+            long count = 0;
+            try (Stream<RecentSpend> spends = transactionRepository.streamWindowedSpendsSince(since)) {
+                for (Iterator<RecentSpend> it = spends.iterator(); it.hasNext(); count++) {
+                    RecentSpend spend = it.next();
+                    CardState state = states.get(spend.cardId());
+                    if (state != null) {
+                        state.replay(spend);
+                    }
+                }
+            }
+            return count;
+        });
+        log.info("Loaded spend limits for {} cards from {} recent spends", states.size(), replayed);
+    }
+
+    /**
+     * Checks the card's limits and reserves {@code amount} in its window.
+     *
+     * @return the reservation time, to pass to {@link #release} if the spend does not happen
+     * @throws SpendLimitExceededException if any limit would be exceeded
+     */
+    public long reserve(Long cardId, long amount) {
+        long now = System.currentTimeMillis();
+        CardState state = states.get(cardId);
+        if (state != null) {
+            state.reserve(amount, now);
+        }
+        return now;
+    }
+
+    public void release(Long cardId, long amount, long reservedAt) {
+        CardState state = states.get(cardId);
+        if (state != null) {
+            state.release(amount, reservedAt);
+        }
+    }
+
+    /**
+     * Installs new limits for a card, with its window rebuilt from the database.
+     */
+    public void update(CardLimit limit) {
+        CardState state = new CardState(limit);
+        if (limit.getWindowSeconds() != null) {
+            Instant since = Instant.now().minusSeconds(limit.getWindowSeconds());
+            for (RecentSpend spend : transactionRepository.findSpendsSince(limit.getCardId(), since)) {
+                state.replay(spend);
+            }
+        }
+        states.put(limit.getCardId(), state);
+    }
+
+    public void remove(Long cardId) {
+        states.remove(cardId);
+    }
+
+    private static final class CardState {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long maxPerTransaction;
+        private final long maxWindowAmount;
+        private final int maxWindowCount;
+        private final SpendWindow window;
+
+        private CardState(CardLimit limit) {
+            this.maxPerTransaction = orMax(limit.getMaxPerTransactionMinor());
+            this.maxWindowAmount = orMax(limit.getMaxWindowAmountMinor());
+            this.maxWindowCount = limit.getMaxWindowCount() == null ? Integer.MAX_VALUE : limit.getMaxWindowCount();
+            this.window = limit.getWindowSeconds() == null
+                    ? null
+                    : new SpendWindow(Duration.ofSeconds(limit.getWindowSeconds()).toMillis());
+        }
+
+        private void reserve(long amount, long now) {
+            if (amount > maxPerTransaction) {
+                throw new SpendLimitExceededException("max per transaction");
+            }
+            if (window == null) {
+                return;
+            }
+
+            lock.lock();
+            try {
+                if (window.count(now) >= maxWindowCount) {
+                    throw new SpendLimitExceededException("max spends per window");
+                }
+                if (window.amount(now) > maxWindowAmount - amount) {
+                    throw new SpendLimitExceededException("max amount per window");
+                }
+                window.add(amount, now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(long amount, long reservedAt) {
+            if (window == null) {
+                return;
+            }
+            lock.lock();
+            try {
+                window.remove(amount, reservedAt);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void replay(RecentSpend spend) {
+            if (window == null) {
+                return;
+            }
+            lock.lock();
+            try {
+                window.add(spend.amountMinor(), spend.createdAt().toEpochMilli());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static long orMax(Long limit) {
+            return limit == null ? Long.MAX_VALUE : limit;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cardissuance.limits;
+
+/**
+ * Spend amount and count of one card over a sliding window, kept in a ring of {@code SLOTS + 1}
+ * fixed-width time slots. A spend is counted for at least the window and at most one slot width
+ * (1/{@value #SLOTS} of the window) longer, so limits err on the side of rejecting.
+ *
+ * <p>Not thread-safe; callers hold the card's lock.
+ */
+final class SpendWindow {
+
+    static final int SLOTS = 60;
+
+    private final long slotMillis;
+    private final long[] slotIds = new long[SLOTS + 1];
+    private final long[] amounts = new long[SLOTS + 1];
+    private final int[] counts = new int[SLOTS + 1];
+
+    SpendWindow(long windowMillis) {
+        this.slotMillis = Math.max(1, (windowMillis + SLOTS - 1) / SLOTS);
+    }
+
+    long amount(long now) {
+        long current = now / slotMillis;
+        long total = 0;
+        for (int i = 0; i <= SLOTS; i++) {
+            if (current - slotIds[i] <= SLOTS) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    int count(long now) {
+        long current = now / slotMillis;
+        int total = 0;
+        for (int i = 0; i <= SLOTS; i++) {
+            if (current - slotIds[i] <= SLOTS) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+
+    void add(long amount, long at) {
+        long slot = at / slotMillis;
+        int i = index(slot);
+        if (slotIds[i] > slot) {
+            return; // older than anything the ring still holds
+        }
+        if (slotIds[i] != slot) {
+            slotIds[i] = slot;
+            amounts[i] = 0;
+            counts[i] = 0;
+        }
+        amounts[i] += amount;
+        counts[i]++;
+    }
+
+    // Undoes add(amount, at), unless its slot has already been reused
+    void remove(long amount, long at) {
+        long slot = at / slotMillis;
+        int i = index(slot);
+        if (slotIds[i] == slot) {
+            amounts[i] -= amount;
+            counts[i]--;
+        }
+    }
+
+    private static int index(long slot) {
+        return (int) Math.floorMod(slot, (long) SLOTS + 1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cardissuance.money;
+
+import java.math.BigDecimal;
+
+/**
+ * Money on the hot path is a {@code long} count of minor units (cents) at a fixed {@link #SCALE},
+ * so compare, add and subtract never allocate. {@link BigDecimal} only appears at the JSON
+ * boundary, where conversion is exact in both directions.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    // Sign, 19 digits and the decimal point
+    public static final int MAX_DECIMAL_CHARS = 21;
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Exact conversion of a decimal amount into minor units.
+     *
+     * @throws IllegalArgumentException if the amount has more than {@link #SCALE} significant
+     *                                  decimal places or does not fit in a {@code long}
+     */
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                    "Amount must have at most " + SCALE + " decimal places: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * Exact decimal value of an amount in minor units, at {@link #SCALE} (so 10000 is
+     * {@code 100.00} and 1050 is {@code 10.50}), as the API has always rendered amounts.
+     */
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * Writes the same text as {@code toDecimal(minor).toPlainString()} into the end of
+     * {@code buffer}, without allocating, for serialisers that take a character range.
+     *
+     * @param buffer at least {@link #MAX_DECIMAL_CHARS} long
+     * @return the index of the first character written
+     */
+    public static int writeDecimal(long minor, char[] buffer) {
+        int pos = buffer.length;
+        // Digits are taken from the negative value, which also covers Long.MIN_VALUE
+        long negative = minor < 0 ? minor : -minor;
+        long fraction = -(negative % MINOR_PER_UNIT);
+        long units = -(negative / MINOR_PER_UNIT);
+
+        for (int i = 0; i < SCALE; i++) {
+            buffer[--pos] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        buffer[--pos] = '.';
+        do {
+            buffer[--pos] = (char) ('0' + units % 10);
+            units /= 10;
+        } while (units > 0);
+        if (minor < 0) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+
+    public static long add(long balance, long amount) {
+        try {
+            return Math.addExact(balance, amount);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Balance overflow");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+import com.example.cardissuance.exception.ServiceBusyException;
+import com.example.cardissuance.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Read side of the outbox for {@code GET /cards/events}. Consumers that are caught up are
+ * served, or made to wait, from the in-memory {@link EventLog}; only a consumer resuming from
+ * an offset older than the log reads {@code outbox_events}, a page at a time.
+ */
+@Component
+public class CardEventFeed {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final EventLog eventLog;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectWriter eventWriter;
+    private final Semaphore subscribers;
+    private final long streamNanos;
+    private final long heartbeatNanos;
+
+    public CardEventFeed(EventLog eventLog,
+                         OutboxEventRepository outboxRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${card.outbox.max-subscribers:16}") int maxSubscribers,
+                         @Value("${card.outbox.stream-duration:PT5M}") Duration streamDuration,
+                         @Value("${card.outbox.heartbeat:PT15S}") Duration heartbeat) {
+        this.eventLog = eventLog;
+        this.outboxRepository = outboxRepository;
+        this.eventWriter = objectMapper.writerFor(CardEvent.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.subscribers = new Semaphore(maxSubscribers);
+        this.streamNanos = streamDuration.toNanos();
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    /**
+     * Up to {@code limit} events after offset {@code after}, waiting up to {@code wait} for the
+     * first one if the consumer is caught up. An empty list means nothing arrived in time.
+     */
+    public List<CardEvent> read(long after, int limit, Duration wait) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            return read(after, limit, wait.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+    }
+
+    /**
+     * Reserves a slot for a server-sent event stream; checked up front so the caller can still
+     * answer with an error status.
+     *
+     * @throws ServiceBusyException if {@code card.outbox.max-subscribers} streams are open
+     */
+    public Subscription subscribe(long after) {
+        if (!subscribers.tryAcquire()) {
+            throw new ServiceBusyException();
+        }
+        return new Subscription(after);
+    }
+
+    private List<CardEvent> read(long after, int limit, long waitNanos) throws InterruptedException {
+        List<CardEvent> events = eventLog.read(after, limit, waitNanos);
+        if (events != null) {
+            return events;
+        }
+        // Behind the in-memory log: catch up from the table, which keeps card.outbox.retention
+        events = outboxRepository.findPublishedAfter(after, PageRequest.ofSize(limit));
+        if (!events.isEmpty()) {
+            return events;
+        }
+        // Purged from the table too: continue from the oldest event still held
+        events = eventLog.read(eventLog.oldest() - 1, limit, waitNanos);
+        return events != null ? events : List.of();
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private long cursor;
+        private boolean closed;
+
+        private Subscription(long after) {
+            this.cursor = after;
+        }
+
+        /**
+         * Writes events as they are published, each with its offset as the SSE id, until
+         * {@code card.outbox.stream-duration} has passed. Idle streams get a comment line every
+         * {@code card.outbox.heartbeat}. Clients reconnect with {@code Last-Event-ID} to resume.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            long deadline = System.nanoTime() + streamNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                List<CardEvent> events;
+                try {
+                    events = read(cursor, MAX_LIMIT, Math.min(heartbeatNanos, remaining));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (events.isEmpty()) {
+                    out.write(HEARTBEAT);
+                }
+                for (CardEvent event : events) {
+                    out.write(("id: " + event.getOffset() + "\ndata: ").getBytes(StandardCharsets.US_ASCII));
+                    eventWriter.writeValue(out, event);
+                    out.write('\n');
+                    out.write('\n');
+                    cursor = event.getOffset();
+                }
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                subscribers.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The most recently published events, by offset, in a fixed ring of
+ * {@code card.outbox.buffer-size} slots. Consumers that are caught up wait here for the next
+ * batch instead of querying the database.
+ */
+@Component
+class EventLog {
+
+    private final CardEvent[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // Offset of the first event this log saw and of the next one; -1 until the relay starts
+    private long first = -1;
+    private long next = -1;
+
+    EventLog(@Value("${card.outbox.buffer-size:10000}") int bufferSize) {
+        this.ring = new CardEvent[bufferSize];
+    }
+
+    void start(long nextOffset) {
+        lock.lock();
+        try {
+            first = nextOffset;
+            next = nextOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called by the relay with consecutive offsets starting at the current end
+    void append(List<CardEvent> events) {
+        lock.lock();
+        try {
+            for (CardEvent event : events) {
+                ring[slot(next)] = event;
+                next++;
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} events after {@code after}, waiting up to {@code waitNanos} if there are
+     * none yet. Returns null if those events are no longer (or not yet) held here.
+     */
+    List<CardEvent> read(long after, int max, long waitNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = waitNanos;
+            while (next >= 0 && after + 1 >= next && nanos > 0) {
+                nanos = appended.awaitNanos(nanos);
+            }
+            if (next < 0 || after + 1 < oldestHeld()) {
+                return null;
+            }
+            long end = Math.min(next, after + 1 + max);
+            List<CardEvent> events = new ArrayList<>((int) Math.max(0, end - after - 1));
+            for (long offset = after + 1; offset < end; offset++) {
+                events.add(ring[slot(offset)]);
+            }
+            return events;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long oldest() {
+        lock.lock();
+        try {
+            return oldestHeld();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long oldestHeld() {
+        return Math.max(first, next - ring.length);
+    }
+
+    private int slot(long offset) {
+        return (int) Math.floorMod(offset, (long) ring.length);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends every published event as one JSON line to {@code card.outbox.file-sink.path}, for
+ * local runs and for feeding tools that tail a file. Each batch is one write and one fsync.
+ */
+@Component
+@ConditionalOnProperty(name = "card.outbox.file-sink.path")
+public class NdjsonFileSink implements OutboxSink {
+
+    private final ObjectWriter writer;
+    private final FileChannel channel;
+
+    public NdjsonFileSink(ObjectMapper objectMapper,
+                          @Value("${card.outbox.file-sink.path}") String path) throws IOException {
+        this.writer = objectMapper.writerFor(CardEvent.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Path file = Path.of(path);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void publish(List<CardEvent> events) {
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 192);
+            for (CardEvent event : events) {
+                writer.writeValue(lines, event);
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        channel.close();
+    }
+}
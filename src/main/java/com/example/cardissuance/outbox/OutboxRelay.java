@@ -0,0 +1,131 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+import com.example.cardissuance.entity.OutboxEvent;
+import com.example.cardissuance.entity.OutboxOffset;
+import com.example.cardissuance.repository.OutboxEventRepository;
+import com.example.cardissuance.repository.OutboxOffsetRepository;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains {@code outbox_events} in batches of {@code card.outbox.batch-size}. Each batch is one
+ * database transaction: the oldest unpublished rows are given the next offsets, handed to every
+ * {@link OutboxSink}, and marked published on commit. Only then are they appended to the
+ * {@link EventLog} that consumers read, so consumers never see an offset that could still be
+ * rolled back. A failed batch is retried on the next run; sinks may see it twice. The last offset
+ * given out is kept in {@code outbox_offsets} by the same transaction, so numbering carries on
+ * across restarts even after every published row has been purged.
+ *
+ * <p>While batches come back full the relay keeps going without waiting, so a burst drains at
+ * the rate of one batched update per batch rather than one per event.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxOffsetRepository offsetRepository;
+    private final List<OutboxSink> sinks;
+    private final EventLog eventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final ReentrantLock running = new ReentrantLock();
+    private long nextOffset;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       OutboxOffsetRepository offsetRepository,
+                       ObjectProvider<OutboxSink> sinks,
+                       EventLog eventLog,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${card.outbox.batch-size:1000}") int batchSize,
+                       @Value("${card.outbox.retention:P1D}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.offsetRepository = offsetRepository;
+        this.sinks = sinks.orderedStream().toList();
+        this.eventLog = eventLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    void start() {
+        long last = offsetRepository.findById(OutboxOffset.ID)
+                .map(OutboxOffset::getLastOffset)
+                // Only before the first batch, or on a database that predates the table
+                .orElseGet(() -> {
+                    Long published = outboxRepository.findMaxPublishedOffset();
+                    return published == null ? 0 : published;
+                });
+        nextOffset = last + 1;
+        eventLog.start(nextOffset);
+    }
+
+    @Scheduled(fixedDelayString = "${card.outbox.relay-interval:PT0.05S}",
+               initialDelayString = "${card.outbox.relay-interval:PT0.05S}")
+    public void relay() {
+        running.lock();
+        try {
+            while (relayBatch() == batchSize) {
+                // A full batch: more are probably waiting
+            }
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying on the next run", e);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    // Published rows are kept for card.outbox.retention so consumers can resume from an older offset
+    @Scheduled(fixedDelayString = "${card.outbox.purge-interval:PT10M}",
+               initialDelayString = "${card.outbox.purge-interval:PT10M}")
+    void purge() {
+        int deleted = outboxRepository.deletePublishedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events older than {}", deleted, retention);
+        }
+    }
+
+    private int relayBatch() {
+        List<CardEvent> events = transactionTemplate.execute(status -> {
+            List<OutboxEvent> rows = outboxRepository.findUnpublished(PageRequest.ofSize(batchSize));
+            List<CardEvent> batch = new ArrayList<>(rows.size());
+            long offset = nextOffset;
+            for (OutboxEvent row : rows) {
+                // Flushed as one batched update on commit
+                row.setPublishedOffset(offset++);
+                batch.add(CardEvent.of(row));
+            }
+            if (!batch.isEmpty()) {
+                offsetRepository.upsert(offset - 1);
+                for (OutboxSink sink : sinks) {
+                    sink.publish(batch);
+                }
+            }
+            return batch;
+        });
+
+        nextOffset += events.size();
+        eventLog.append(events);
+        return events.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+
+import java.util.List;
+
+/**
+ * Destination of published card events, e.g. a message broker. Every {@code OutboxSink} bean
+ * receives each batch in offset order before the batch is marked published; a batch that
+ * fails is retried, so a sink can see an event more than once.
+ */
+public interface OutboxSink {
+
+    void publish(List<CardEvent> events);
+}
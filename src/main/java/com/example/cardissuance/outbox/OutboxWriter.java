@@ -0,0 +1,37 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.entity.OutboxEvent;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.repository.OutboxEventRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues new transaction rows for publishing. Must be called inside the database transaction
+ * that saves the rows, after they have their ids, so an event exists exactly when its
+ * transaction does.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepository;
+
+    public OutboxWriter(OutboxEventRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    public void record(Transaction row) {
+        record(List.of(row));
+    }
+
+    public void record(List<Transaction> rows) {
+        List<OutboxEvent> events = new ArrayList<>(rows.size());
+        for (Transaction row : rows) {
+            events.add(new OutboxEvent(row));
+        }
+        outboxRepository.saveAll(events);
+    }
+}
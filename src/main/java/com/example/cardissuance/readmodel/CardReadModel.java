@@ -0,0 +1,340 @@
+package com.example.cardissuance.readmodel;
+
+import com.example.cardissuance.archive.TransactionArchive;
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.TransactionPage;
+import com.example.cardissuance.dto.TransactionResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.BalanceEngine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Query-side copy of the cards being read, so {@code GET /cards/{id}} and history pages can be
+ * answered from memory instead of competing with spends for pooled connections.
+ *
+ * <p>A card gets a view the first time it is read; that read still goes to the primary. Views
+ * hold the committed card and its {@code card.read-model.history-size} newest transactions.
+ * A Hibernate post-commit listener marks a card changed whenever one of its transactions
+ * commits, whichever engine wrote it, and a single background refresh reloads the changed views
+ * every {@code card.read-model.refresh-interval}, a batch of cards per read-only transaction.
+ * Request threads never touch the database for the read model.
+ *
+ * <p>A view is accurate as of the start of the last completed refresh (or its own load, if
+ * later): any commit before that had marked the card and was reloaded. That age is the reported
+ * staleness; past {@code card.read-model.max-staleness}, e.g. while refreshes fail, reads fall
+ * back to the primary. So do reads while the balance engine holds mutations it has not written
+ * to the tables yet, as the ledger engine does, since the views are loaded from the tables.
+ *
+ * <p>Views not read for a whole {@code card.read-model.idle-timeout} are dropped, so the
+ * {@code card.read-model.max-cards} bound keeps room for the cards being read now.
+ */
+@Component
+public class CardReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(CardReadModel.class);
+
+    // Placeholder for a card that has been read but not loaded yet
+    private static final CardView PENDING = new CardView(null, List.of(), Long.MIN_VALUE, 0);
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive archive;
+    private final BalanceEngine balanceEngine;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTemplate;
+    private final boolean enabled;
+    private final long maxStalenessNanos;
+    private final int maxCards;
+    private final int historySize;
+    private final int refreshBatchSize;
+    private final ConcurrentHashMap<Long, CardView> views = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock refreshing = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Cards read since the last idle sweep; swapped out by each sweep
+    private volatile Set<Long> readSinceSweep = ConcurrentHashMap.newKeySet();
+    private volatile long lastRefreshStart = System.nanoTime();
+
+    public CardReadModel(CardRepository cardRepository,
+                         TransactionRepository transactionRepository,
+                         TransactionArchive archive,
+                         BalanceEngine balanceEngine,
+                         EntityManagerFactory entityManagerFactory,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${card.read-model.enabled:false}") boolean enabled,
+                         @Value("${card.read-model.max-staleness:PT2S}") Duration maxStaleness,
+                         @Value("${card.read-model.max-cards:100000}") int maxCards,
+                         @Value("${card.read-model.history-size:100}") int historySize,
+                         @Value("${card.read-model.refresh-batch-size:500}") int refreshBatchSize) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.archive = archive;
+        this.balanceEngine = balanceEngine;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.maxCards = maxCards;
+        this.historySize = historySize;
+        this.refreshBatchSize = refreshBatchSize;
+    }
+
+    @PostConstruct
+    void registerCommitListener() {
+        if (!enabled) {
+            return;
+        }
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_INSERT, new CommitListener());
+    }
+
+    /**
+     * The card as of the last refresh, or null if the primary has to answer: the model is off,
+     * the card has no view yet, or the view is older than the staleness bound.
+     */
+    public ReadResult<CardSnapshot> card(Long id) {
+        CardView view = freshView(id);
+        if (view == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return ReadResult.readModel(view.card(), stalenessMillis(view));
+    }
+
+    /**
+     * One page of history after {@code after}, or null if the primary has to answer, including
+     * when the page reaches back past the transactions the view holds.
+     */
+    public ReadResult<TransactionPage> page(Long cardId, long after, int limit) {
+        CardView view = freshView(cardId);
+        if (view == null || after < view.truncatedAt()) {
+            misses.increment();
+            return null;
+        }
+
+        List<TransactionResponse> recent = view.recent();
+        int from = 0;
+        while (from < recent.size() && recent.get(from).getId() <= after) {
+            from++;
+        }
+        int to = Math.min(recent.size(), from + limit);
+        List<TransactionResponse> items = recent.subList(from, to);
+        Long nextCursor = recent.size() - from > limit ? items.get(limit - 1).getId() : null;
+        hits.increment();
+        return ReadResult.readModel(new TransactionPage(items, nextCursor), stalenessMillis(view));
+    }
+
+    /**
+     * Reloads the card's view on the next refresh. Commits of new transactions call this
+     * automatically; other balance changes, such as a repair, call it directly.
+     */
+    public void markChanged(Long cardId) {
+        if (enabled) {
+            changed.add(cardId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${card.read-model.refresh-interval:PT0.1S}",
+               initialDelayString = "${card.read-model.refresh-interval:PT0.1S}")
+    void refresh() {
+        if (!enabled) {
+            return;
+        }
+        refreshing.lock();
+        try {
+            long start = System.nanoTime();
+            List<Long> ids = new ArrayList<>();
+            for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+                Long id = it.next();
+                it.remove();
+                if (views.containsKey(id)) {
+                    ids.add(id);
+                }
+            }
+
+            for (int from = 0; from < ids.size(); from += refreshBatchSize) {
+                try {
+                    load(ids.subList(from, Math.min(ids.size(), from + refreshBatchSize)), start);
+                } catch (RuntimeException e) {
+                    // Retried next time; meanwhile the views age past the bound and reads fall back
+                    changed.addAll(ids.subList(from, ids.size()));
+                    log.warn("Read model refresh of {} cards failed", ids.size() - from, e);
+                    return;
+                }
+            }
+            lastRefreshStart = start;
+        } finally {
+            refreshing.unlock();
+        }
+    }
+
+    /**
+     * Drops the views that were not read since the previous sweep, so an idle view goes after
+     * one to two {@code card.read-model.idle-timeout}s.
+     */
+    @Scheduled(fixedDelayString = "${card.read-model.idle-timeout:PT10M}",
+               initialDelayString = "${card.read-model.idle-timeout:PT10M}")
+    void evictIdle() {
+        if (!enabled) {
+            return;
+        }
+        Set<Long> read = readSinceSweep;
+        readSinceSweep = ConcurrentHashMap.newKeySet();
+        int before = views.size();
+        views.keySet().removeIf(id -> !read.contains(id));
+        log.debug("Evicted {} idle read model views", before - views.size());
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return views.size();
+    }
+
+    public long stalenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastRefreshStart);
+    }
+
+    private CardView freshView(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        readSinceSweep.add(id);
+        CardView view = views.get(id);
+        if (view == null) {
+            // Bounded: once full, cards without a view are read from the primary until idle views are evicted
+            if (views.size() < maxCards && views.putIfAbsent(id, PENDING) == null) {
+                changed.add(id);
+            }
+            return null;
+        }
+        if (view == PENDING || stalenessNanos(view) > maxStalenessNanos) {
+            return null;
+        }
+        // The tables, and so the view, are behind mutations the engine has already acknowledged
+        if (balanceEngine.pendingWrites() > 0 || balanceEngine.pendingCard(id) != null) {
+            return null;
+        }
+        return view;
+    }
+
+    private void load(List<Long> ids, long asOf) {
+        readOnlyTemplate.executeWithoutResult(status -> {
+            Map<Long, Card> cards = cardRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Card::getId, Function.identity()));
+            for (Long id : ids) {
+                Card card = cards.get(id);
+                if (card == null) {
+                    // Unknown, or with the ledger engine not projected yet; asked for again on the next read
+                    views.remove(id, PENDING);
+                    continue;
+                }
+                // One extra row tells us whether older history exists beyond the view
+                List<TransactionResponse> newest = transactionRepository
+                        .findLatest(id, PageRequest.ofSize(historySize + 1));
+                views.replace(id, CardView.of(CardSnapshot.of(card), newest, historySize, archive.lastId(id), asOf));
+            }
+        });
+    }
+
+    private long stalenessNanos(CardView view) {
+        long asOf = lastRefreshStart;
+        if (view.asOf() - asOf > 0) {
+            asOf = view.asOf();
+        }
+        return System.nanoTime() - asOf;
+    }
+
+    private long stalenessMillis(CardView view) {
+        return TimeUnit.NANOSECONDS.toMillis(stalenessNanos(view));
+    }
+
+    /**
+     * @param recent      oldest first
+     * @param truncatedAt id of the newest transaction left out of {@code recent}; every later one is in it
+     */
+    private record CardView(CardSnapshot card, List<TransactionResponse> recent, long truncatedAt, long asOf) {
+
+        // Archived transactions are never in the view, even when the hot table holds fewer than historySize
+        static CardView of(CardSnapshot card, List<TransactionResponse> newestFirst, int historySize,
+                           long lastArchivedId, long asOf) {
+            long truncatedAt = Long.MIN_VALUE;
+            List<TransactionResponse> kept = newestFirst;
+            if (newestFirst.size() > historySize) {
+                truncatedAt = newestFirst.get(historySize).getId();
+                kept = newestFirst.subList(0, historySize);
+            }
+            if (lastArchivedId > truncatedAt) {
+                truncatedAt = lastArchivedId;
+            }
+            List<TransactionResponse> recent = new ArrayList<>(kept);
+            Collections.reverse(recent);
+            return new CardView(card, List.copyOf(recent), truncatedAt, asOf);
+        }
+    }
+
+    // Runs on the committing thread once its transaction is durable; only marks the card
+    private final class CommitListener implements PostCommitInsertEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Transaction transaction) {
+                changed.add(transaction.getCardId());
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.getMappedClass() == Transaction.class;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.cardissuance.readmodel;
+
+/**
+ * Per-request choice between the read model and the primary tables.
+ */
+public enum ReadConsistency {
+
+    // Read model if it is fresh enough, otherwise the primary
+    EVENTUAL,
+    // Always the primary, as of this request
+    STRONG;
+
+    public static ReadConsistency parse(String value) {
+        for (ReadConsistency consistency : values()) {
+            if (consistency.name().equalsIgnoreCase(value)) {
+                return consistency;
+            }
+        }
+        throw new IllegalArgumentException("Consistency must be eventual or strong");
+    }
+}
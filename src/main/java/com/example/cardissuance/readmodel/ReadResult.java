@@ -0,0 +1,15 @@
+package com.example.cardissuance.readmodel;
+
+/**
+ * A read together with where it was served from and how far behind the primary it may be.
+ */
+public record ReadResult<T>(T value, boolean fromReadModel, long stalenessMillis) {
+
+    public static <T> ReadResult<T> primary(T value) {
+        return new ReadResult<>(value, false, 0);
+    }
+
+    static <T> ReadResult<T> readModel(T value, long stalenessMillis) {
+        return new ReadResult<>(value, true, stalenessMillis);
+    }
+}
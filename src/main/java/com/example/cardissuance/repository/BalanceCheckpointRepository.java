@@ -0,0 +1,59 @@
+package com.example.cardissuance.repository;
+
+import com.example.cardissuance.checkpoint.CardReplay;
+import com.example.cardissuance.entity.BalanceCheckpoint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    /**
+     * Replays the cards with ids in [fromId, toId) from their checkpoints. Only transactions
+     * after the checkpoint are read, through the (card_id, id) index, and everything comes from
+     * one statement, so no card row is locked and a concurrent spend is seen entirely or not
+     * at all. A card without a checkpoint is replayed from the balance it was issued with, or,
+     * if it predates that column, from the opening balance implied by its first transaction.
+     */
+    @Query(value = """
+            select c.id as cardId,
+                   c.balance_minor as balanceMinor,
+                   cp.balance_minor as checkpointMinor,
+                   cp.last_transaction_id as checkpointTransactionId,
+                   case when cp.card_id is null then coalesce(c.opening_balance_minor, (
+                       select f.balance_after_minor
+                              - case f.type when 'TOPUP' then f.amount_minor else -f.amount_minor end
+                       from transactions f
+                       where f.card_id = c.id
+                       order by f.id
+                       limit 1))
+                   end as openingMinor,
+                   coalesce(sum(case t.type when 'TOPUP' then t.amount_minor else -t.amount_minor end), 0)
+                       as replayedMinor,
+                   count(t.id) as replayedCount,
+                   coalesce(sum(case when t.created_at < :settledBefore
+                       then case t.type when 'TOPUP' then t.amount_minor else -t.amount_minor end
+                       else 0 end), 0) as settledMinor,
+                   max(case when t.created_at < :settledBefore then t.id end) as settledTransactionId,
+                   min(case when t.created_at >= :settledBefore then t.id end) as firstUnsettledTransactionId
+            from cards c
+            left join balance_checkpoints cp on cp.card_id = c.id
+            left join transactions t on t.card_id = c.id and t.id > coalesce(cp.last_transaction_id, 0)
+            where c.id >= :fromId and c.id < :toId
+            group by c.id, c.balance_minor, c.opening_balance_minor, cp.card_id, cp.balance_minor, cp.last_transaction_id""",
+            nativeQuery = true)
+    List<CardReplay> replay(long fromId, long toId, Instant settledBefore);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            merge into balance_checkpoints (card_id, balance_minor, last_transaction_id, created_at)
+            key (card_id)
+            values (:cardId, :balanceMinor, :lastTransactionId, :createdAt)""", nativeQuery = true)
+    void upsert(Long cardId, long balanceMinor, long lastTransactionId, Instant createdAt);
+}
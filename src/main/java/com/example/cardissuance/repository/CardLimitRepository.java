@@ -0,0 +1,7 @@
+package com.example.cardissuance.repository;
+
+import com.example.cardissuance.entity.CardLimit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CardLimitRepository extends JpaRepository<CardLimit, Long> {
+}
@@ -2,7 +2,60 @@ package com.example.cardissuance.repository;
 
 import com.example.cardissuance.entity.Card;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
 
 public interface CardRepository extends JpaRepository<Card, Long> {
-    
-}
\ No newline at end of file
+
+    /**
+     * Debits the card only if the balance covers the amount, in one statement, and returns the
+     * new balance. Empty if the card is missing or the balance is insufficient. Bumps
+     * {@code version} so concurrent optimistic writers still see the change.
+     */
+    @Query(value = """
+            select balance_minor from final table (
+                update cards set balance_minor = balance_minor - :amount, version = version + 1
+                where id = :id and balance_minor >= :amount)""", nativeQuery = true)
+    Optional<Long> debit(Long id, long amount);
+
+    @Query(value = """
+            select balance_minor from final table (
+                update cards set balance_minor = balance_minor + :amount, version = version + 1
+                where id = :id)""", nativeQuery = true)
+    Optional<Long> credit(Long id, long amount);
+
+    /**
+     * Reserves a block of card ids outside Hibernate, see {@link Card#ID_ALLOCATION_SIZE}.
+     */
+    @Transactional
+    @Query(value = "select next value for cards_seq", nativeQuery = true)
+    long nextCardIdBlock();
+
+    /**
+     * Inserts a card whose id was assigned up front, bypassing the id generator.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into cards (id, cardholder_name, balance_minor, opening_balance_minor, created_at, version)
+            values (:id, :cardholderName, :balanceMinor, :balanceMinor, :createdAt, 0)""", nativeQuery = true)
+    void insertCard(Long id, String cardholderName, long balanceMinor, Instant createdAt);
+
+    @Query("select max(c.id) from Card c")
+    Long findMaxId();
+
+    /**
+     * Sets a drifted balance, but only if it is still the balance the verifier saw, so a spend
+     * that committed in between is never overwritten.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            update cards set balance_minor = :expected, version = version + 1
+            where id = :id and balance_minor = :observed""", nativeQuery = true)
+    int repairBalance(Long id, long observed, long expected);
+}
@@ -0,0 +1,48 @@
+package com.example.cardissuance.repository;
+
+import com.example.cardissuance.entity.CardRollup;
+import com.example.cardissuance.entity.RollupGranularity;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CardRollupRepository extends JpaRepository<CardRollup, CardRollup.Key> {
+
+    /**
+     * Adds the deltas to an existing bucket row; returns 0 if the bucket does not exist yet.
+     * Flushes first, so the card row update that precedes this holds its lock and serialises
+     * writers of the same card.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            update card_rollups
+            set spend_minor = spend_minor + :spendMinor, spend_count = spend_count + :spendCount,
+                top_up_minor = top_up_minor + :topUpMinor, top_up_count = top_up_count + :topUpCount
+            where card_id = :cardId and granularity = :granularity and bucket_start = :bucketStart""",
+            nativeQuery = true)
+    int increment(Long cardId, String granularity, LocalDate bucketStart,
+                  long spendMinor, long spendCount, long topUpMinor, long topUpCount);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into card_rollups
+                (card_id, granularity, bucket_start, spend_minor, spend_count, top_up_minor, top_up_count)
+            values (:cardId, :granularity, :bucketStart, :spendMinor, :spendCount, :topUpMinor, :topUpCount)""",
+            nativeQuery = true)
+    int insert(Long cardId, String granularity, LocalDate bucketStart,
+               long spendMinor, long spendCount, long topUpMinor, long topUpCount);
+
+    @Query("""
+            select r from CardRollup r
+            where r.cardId = :cardId and r.granularity = :granularity
+              and r.bucketStart between :from and :to
+            order by r.bucketStart""")
+    List<CardRollup> findRange(Long cardId, RollupGranularity granularity, LocalDate from, LocalDate to);
+}
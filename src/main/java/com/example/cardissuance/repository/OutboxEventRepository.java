@@ -0,0 +1,39 @@
+package com.example.cardissuance.repository;
+
+import com.example.cardissuance.dto.CardEvent;
+import com.example.cardissuance.entity.OutboxEvent;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest first; rows committed late with a lower id are simply picked up by the next batch
+    @Query("""
+            select e from OutboxEvent e
+            where e.publishedOffset is null
+            order by e.id""")
+    List<OutboxEvent> findUnpublished(Pageable pageable);
+
+    @Query("select max(e.publishedOffset) from OutboxEvent e")
+    Long findMaxPublishedOffset();
+
+    @Query("""
+            select new com.example.cardissuance.dto.CardEvent(
+                e.publishedOffset, e.transactionId, e.cardId, e.type, e.amountMinor, e.balanceAfterMinor, e.createdAt)
+            from OutboxEvent e
+            where e.publishedOffset > :after
+            order by e.publishedOffset""")
+    List<CardEvent> findPublishedAfter(Long after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedOffset is not null and e.createdAt < :before")
+    int deletePublishedBefore(Instant before);
+}
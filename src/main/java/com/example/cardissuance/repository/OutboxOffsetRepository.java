@@ -0,0 +1,20 @@
+package com.example.cardissuance.repository;
+
+import com.example.cardissuance.entity.OutboxOffset;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, Long> {
+
+    // Joins the relay's batch transaction, so the offsets and the rows carrying them commit together
+    @Transactional
+    @Modifying
+    @Query(value = """
+            merge into outbox_offsets (id, last_offset)
+            key (id)
+            values (1, :lastOffset)""", nativeQuery = true)
+    void upsert(long lastOffset);
+}
@@ -1,15 +1,119 @@
 package com.example.cardissuance.repository;
 
+import com.example.cardissuance.archive.ArchivedTransaction;
+import com.example.cardissuance.cache.RecordedRequest;
+import com.example.cardissuance.dto.TransactionResponse;
 import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.export.StatementLine;
+import com.example.cardissuance.limits.RecentSpend;
 
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-   @Lock(LockModeType.PESSIMISTIC_WRITE)
-   List<Transaction> findByCardId(Long cardId);
+
+   // History reads project straight into the DTO: no entity hydration, no row locks
+
+   @Query("""
+           select new com.example.cardissuance.dto.TransactionResponse(t.id, t.amountMinor, t.type, t.createdAt)
+           from Transaction t
+           where t.card.id = :cardId and t.id > :after
+           order by t.id""")
+   List<TransactionResponse> findPage(Long cardId, Long after, Pageable pageable);
+
+   // Newest first, for the read model's copy of a card's recent history
+   @Query("""
+           select new com.example.cardissuance.dto.TransactionResponse(t.id, t.amountMinor, t.type, t.createdAt)
+           from Transaction t
+           where t.card.id = :cardId
+           order by t.id desc""")
+   List<TransactionResponse> findLatest(Long cardId, Pageable pageable);
+
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+           @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("""
+           select new com.example.cardissuance.dto.TransactionResponse(t.id, t.amountMinor, t.type, t.createdAt)
+           from Transaction t
+           where t.card.id = :cardId
+           order by t.id""")
+   Stream<TransactionResponse> streamByCardId(Long cardId);
+
+   // All cards, for the reconciliation export: one forward-only cursor over [from, to)
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+           @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("""
+           select new com.example.cardissuance.export.StatementLine(
+               t.card.id, t.id, t.type, t.amountMinor, t.balanceAfterMinor, t.createdAt)
+           from Transaction t
+           where t.createdAt >= :from and t.createdAt < :to
+           order by t.card.id, t.id""")
+   Stream<StatementLine> streamStatement(Instant from, Instant to);
+
+   // The original request and its resulting balance, for answering an idempotent replay
+   @Query("""
+           select new com.example.cardissuance.cache.RecordedRequest(t.type, t.amountMinor, t.balanceAfterMinor)
+           from Transaction t
+           where t.card.id = :cardId and t.idempotencyKey = :idempotencyKey""")
+   Optional<RecordedRequest> findRecordedRequest(Long cardId, String idempotencyKey);
+
+   // Startup load of the spend windows: only cards with a windowed limit are read
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+           @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("""
+           select new com.example.cardissuance.limits.RecentSpend(t.card.id, t.amountMinor, t.createdAt)
+           from Transaction t, CardLimit l
+           where l.cardId = t.card.id and l.windowSeconds is not null
+             and t.type = 'SPEND' and t.createdAt >= :since""")
+   Stream<RecentSpend> streamWindowedSpendsSince(Instant since);
+
+   @Query("""
+           select new com.example.cardissuance.limits.RecentSpend(t.card.id, t.amountMinor, t.createdAt)
+           from Transaction t
+           where t.card.id = :cardId and t.type = 'SPEND' and t.createdAt >= :since""")
+   List<RecentSpend> findSpendsSince(Long cardId, Instant since);
+
+   @Query("select max(t.journalSeq) from Transaction t")
+   Long findMaxJournalSeq();
+
+   // Archiving: rows created in [from, to) that their card's checkpoint covers, ordered as archive files are
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+           @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("""
+           select new com.example.cardissuance.archive.ArchivedTransaction(
+               t.card.id, t.id, t.type, t.amountMinor, t.balanceAfterMinor, t.createdAt)
+           from Transaction t, BalanceCheckpoint c
+           where c.cardId = t.card.id and t.id <= c.lastTransactionId
+             and t.createdAt >= :from and t.createdAt < :to
+             and (t.journalSeq is null or t.journalSeq < :keepJournalSeq)
+           order by t.card.id, t.id""")
+   Stream<ArchivedTransaction> streamArchivable(Instant from, Instant to, long keepJournalSeq);
+
+   @Query("select min(t.createdAt) from Transaction t")
+   Instant findMinCreatedAt();
+
+   @Transactional
+   @Modifying
+   @Query("delete from Transaction t where t.id in :ids")
+   int deleteByIds(Collection<Long> ids);
 }
@@ -0,0 +1,78 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Conditional-update engine: the balance guard is a single {@code UPDATE ... WHERE balance >= :amount}
+ * evaluated by the database, so there is no entity load and no version conflict under contention.
+ * Only on failure is a second query issued to tell a missing card from an insufficient balance.
+ */
+@Component
+@ConditionalOnProperty(name = "card.engine", havingValue = "atomic")
+public class AtomicBalanceEngine implements BalanceEngine {
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final RollupWriter rollupWriter;
+    private final OutboxWriter outboxWriter;
+
+    public AtomicBalanceEngine(CardRepository cardRepository,
+                               TransactionRepository transactionRepository,
+                               RollupWriter rollupWriter,
+                               OutboxWriter outboxWriter) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.rollupWriter = rollupWriter;
+        this.outboxWriter = outboxWriter;
+    }
+
+    @Override
+    public Card createCard(Card card) {
+        return cardRepository.saveAndFlush(card);
+    }
+
+    @Override
+    @Transactional
+    public SpendResponse spend(Long cardId, long amount, String idempotencyKey) {
+        long balance = cardRepository.debit(cardId, amount)
+                .orElseThrow(() -> cardRepository.existsById(cardId)
+                        ? new InsufficientBalanceException()
+                        : new CardNotFoundException(cardId));
+
+        Transaction transaction = new Transaction(
+                cardRepository.getReferenceById(cardId), amount, "SPEND", balance);
+        transaction.setIdempotencyKey(idempotencyKey);
+        transactionRepository.save(transaction);
+        rollupWriter.record(transaction);
+        outboxWriter.record(transaction);
+
+        return new SpendResponse(cardId, balance);
+    }
+
+    @Override
+    @Transactional
+    public SpendResponse topUp(Long cardId, long amount, String idempotencyKey) {
+        long balance = cardRepository.credit(cardId, amount)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+
+        Transaction transaction = new Transaction(
+                cardRepository.getReferenceById(cardId), amount, "TOPUP", balance);
+        transaction.setIdempotencyKey(idempotencyKey);
+        transactionRepository.save(transaction);
+        rollupWriter.record(transaction);
+        outboxWriter.record(transaction);
+
+        return new SpendResponse(cardId, balance);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies balance mutations for {@link CardService}. Amounts and balances are in minor units.
+ * Exactly one implementation is active, selected by {@code card.engine}.
+ */
+public interface BalanceEngine {
+
+    /**
+     * Persists a new card and returns it with its id assigned.
+     */
+    Card createCard(Card card);
+
+    /**
+     * Debits the card. A non-null {@code idempotencyKey} is written on the transaction row in the
+     * same commit as the balance change.
+     */
+    SpendResponse spend(Long cardId, long amount, String idempotencyKey);
+
+    SpendResponse topUp(Long cardId, long amount, String idempotencyKey);
+
+    default SpendResponse spend(Long cardId, long amount) {
+        return spend(cardId, amount, null);
+    }
+
+    default SpendResponse topUp(Long cardId, long amount) {
+        return topUp(cardId, amount, null);
+    }
+
+    /**
+     * Applies operations in order, producing one result per operation. A missing card or an
+     * insufficient balance fails only that item.
+     */
+    default List<BatchOperationResult> applyAll(List<CardOperation> operations) {
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (CardOperation operation : operations) {
+            try {
+                SpendResponse response = operation.isSpend()
+                        ? spend(operation.cardId(), operation.amount(), operation.idempotencyKey())
+                        : topUp(operation.cardId(), operation.amount(), operation.idempotencyKey());
+                results.add(BatchOperationResult.success(response.getId(), response.getRemainingBalanceMinor()));
+            } catch (CardNotFoundException | InsufficientBalanceException e) {
+                results.add(BatchOperationResult.failure(operation.cardId(), e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Whether concurrent mutations of one card are better handed to {@link #applyAll} together
+     * than applied side by side, because side by side they would conflict. See
+     * {@link CardMutationCoalescer}.
+     */
+    default boolean benefitsFromCoalescing() {
+        return false;
+    }
+
+    /**
+     * Authoritative balance of a card, given the balance last read from the {@code cards} table.
+     * Engines that hold balances outside the table override this.
+     */
+    default long currentBalance(Long cardId, long storedBalance) {
+        return storedBalance;
+    }
+
+    /**
+     * A card this engine has accepted but not yet written to the {@code cards} table, or null.
+     */
+    default CardSnapshot pendingCard(Long cardId) {
+        return null;
+    }
+
+    /**
+     * Mutations this engine has accepted but not yet written to the tables. Zero for engines
+     * that write them before returning.
+     */
+    default int pendingWrites() {
+        return 0;
+    }
+
+    /**
+     * Whether a balance corrected directly in the {@code cards} table stays corrected. Engines
+     * that hold balances outside the table would write their own over it.
+     */
+    default boolean acceptsTableRepairs() {
+        return true;
+    }
+}
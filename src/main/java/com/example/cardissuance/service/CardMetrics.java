@@ -0,0 +1,183 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.cache.CardCache;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.exception.SpendLimitExceededException;
+import com.example.cardissuance.readmodel.CardReadModel;
+import com.example.cardissuance.readmodel.ReadResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hot-path metrics for {@link CardService}. Every meter is registered up front, so recording
+ * is a clock read and a lock-free histogram update.
+ *
+ * <p>Database time per repository method comes from Spring Boot's
+ * {@code spring.data.repository.invocations} timer and connection-pool wait from
+ * {@code hikaricp.connections.acquire}; in-app time is {@code card.operation} minus those.
+ */
+@Component
+public class CardMetrics {
+
+    public enum Operation {
+        CREATE_CARD("createCard"),
+        SPEND("spend"),
+        TOP_UP("topUp"),
+        BATCH("batch"),
+        GET_CARD("getCard"),
+        GET_TRANSACTIONS("getTransactions"),
+        GET_SUMMARY("getSummary"),
+        IMPORT_BATCH("importBatch"),
+        EXPORT("exportStatement");
+
+        private final String tag;
+
+        Operation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+    // Eventual reads the read model answered, apart from the primary's latency
+    private final Map<Operation, Timer> readModelTimers = new EnumMap<>(Operation.class);
+    private final Counter insufficientBalance;
+    private final Counter cardNotFound;
+    private final Counter optimisticLock;
+    private final Counter limitExceeded;
+    private final Counter idempotentReplays;
+    private final DistributionSummary historyRows;
+    private final DistributionSummary coalescedBatch;
+
+    public CardMetrics(MeterRegistry registry, CardCache cardCache, CardReadModel readModel) {
+        for (Operation operation : Operation.values()) {
+            timers.put(operation, operationTimer(registry, operation, "primary"));
+        }
+        readModelTimers.put(Operation.GET_CARD, operationTimer(registry, Operation.GET_CARD, "read_model"));
+        readModelTimers.put(Operation.GET_TRANSACTIONS,
+                operationTimer(registry, Operation.GET_TRANSACTIONS, "read_model"));
+
+        insufficientBalance = errorCounter(registry, "insufficient_balance");
+        cardNotFound = errorCounter(registry, "card_not_found");
+        optimisticLock = errorCounter(registry, "optimistic_lock");
+        limitExceeded = errorCounter(registry, "limit_exceeded");
+
+        idempotentReplays = Counter.builder("card.idempotency.replays")
+                .description("Spend and top-up requests answered from an earlier Idempotency-Key")
+                .register(registry);
+
+        historyRows = DistributionSummary.builder("card.history.rows")
+                .description("Rows returned per transaction history call")
+                .publishPercentileHistogram()
+                .register(registry);
+        coalescedBatch = DistributionSummary.builder("card.coalescing.batch_size")
+                .description("Mutations of one card applied together in one database transaction")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        FunctionCounter.builder("card.cache.hits", cardCache, CardCache::hitCount).register(registry);
+        FunctionCounter.builder("card.cache.misses", cardCache, CardCache::missCount).register(registry);
+        FunctionCounter.builder("card.cache.evictions", cardCache, CardCache::evictionCount).register(registry);
+        Gauge.builder("card.cache.size", cardCache, CardCache::size).register(registry);
+
+        FunctionCounter.builder("card.read_model.reads", readModel, CardReadModel::hitCount)
+                .description("Eventual reads by where they were served from")
+                .tag("source", "read_model")
+                .register(registry);
+        FunctionCounter.builder("card.read_model.reads", readModel, CardReadModel::missCount)
+                .description("Eventual reads by where they were served from")
+                .tag("source", "primary")
+                .register(registry);
+        Gauge.builder("card.read_model.staleness", readModel, CardReadModel::stalenessMillis)
+                .description("Time since the read model was last known to be current")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("card.read_model.size", readModel, CardReadModel::size).register(registry);
+    }
+
+    public <T> T record(Operation operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            countError(e);
+            throw e;
+        } finally {
+            timers.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Like {@link #record}, for a read either the read model or the primary may answer; timed
+     * under the source that answered it.
+     */
+    public <T> ReadResult<T> recordRead(Operation operation, Supplier<ReadResult<T>> read) {
+        long start = System.nanoTime();
+        Timer timer = timers.get(operation);
+        try {
+            ReadResult<T> result = read.get();
+            if (result.fromReadModel()) {
+                timer = readModelTimers.get(operation);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            countError(e);
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordHistoryRows(long rows) {
+        historyRows.record(rows);
+    }
+
+    public void recordCoalescedBatch(int size) {
+        coalescedBatch.record(size);
+    }
+
+    public void recordIdempotentReplay() {
+        idempotentReplays.increment();
+    }
+
+    private void countError(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            insufficientBalance.increment();
+        } else if (e instanceof CardNotFoundException) {
+            cardNotFound.increment();
+        } else if (e instanceof ObjectOptimisticLockingFailureException) {
+            optimisticLock.increment();
+        } else if (e instanceof SpendLimitExceededException) {
+            limitExceeded.increment();
+        }
+    }
+
+    private static Timer operationTimer(MeterRegistry registry, Operation operation, String source) {
+        return Timer.builder("card.operation")
+                .description("Latency of card service operations")
+                .tag("operation", operation.tag)
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter errorCounter(MeterRegistry registry, String type) {
+        return Counter.builder("card.errors")
+                .description("Card service failures by type")
+                .tag("type", type)
+                .register(registry);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-card request coalescing for spends and top-ups. Callers mutating the same card queue up
+ * behind whichever of them got there first; that caller takes up to
+ * {@code card.coalescing.max-batch-size} of the queued mutations and applies them in arrival
+ * order through {@link BalanceEngine#applyAll}, one database transaction, each checked against
+ * the balance left by the ones before it. Every caller gets its own response or exception: if
+ * the batch as a whole fails, its mutations are applied again one at a time.
+ * If more have queued meanwhile, the next batch is applied by the caller at its head, so nobody
+ * keeps working for others for long.
+ *
+ * <p>A lone mutation goes straight to the engine. Under contention a hot card costs one card
+ * load and one version check per batch instead of a lost {@code @Version} race per mutation.
+ * There are no threads of its own: batches are applied by the calling threads.
+ *
+ * <p>Only used with engines that {@link BalanceEngine#benefitsFromCoalescing benefit from it};
+ * the others already serialize or batch per card.
+ */
+@Component
+public class CardMutationCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(CardMutationCoalescer.class);
+
+    private final BalanceEngine balanceEngine;
+    private final CardMetrics metrics;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<Long, CardQueue> queues = new ConcurrentHashMap<>();
+
+    public CardMutationCoalescer(BalanceEngine balanceEngine,
+                                 CardMetrics metrics,
+                                 @Value("${card.coalescing.enabled:true}") boolean enabled,
+                                 @Value("${card.coalescing.max-batch-size:100}") int maxBatchSize) {
+        this.balanceEngine = balanceEngine;
+        this.metrics = metrics;
+        this.enabled = enabled && balanceEngine.benefitsFromCoalescing();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public SpendResponse apply(CardOperation operation) {
+        if (!enabled) {
+            return applyDirectly(operation);
+        }
+
+        PendingMutation mutation = new PendingMutation(operation);
+        CardQueue queue;
+        boolean first;
+        while (true) {
+            queue = queues.computeIfAbsent(operation.cardId(), id -> new CardQueue());
+            queue.lock.lock();
+            try {
+                // Emptied and dropped from the map after we looked it up
+                if (queue.retired) {
+                    continue;
+                }
+                queue.waiting.add(mutation);
+                first = !queue.draining;
+                queue.draining = true;
+            } finally {
+                queue.lock.unlock();
+            }
+            break;
+        }
+
+        if (!first) {
+            // Woken either with our result or to apply the next batch, ours at its head
+            CompletableFuture.anyOf(mutation.result, mutation.turn).exceptionally(e -> null).join();
+            if (mutation.result.isDone()) {
+                return await(mutation);
+            }
+        }
+        drain(operation.cardId(), queue);
+        return await(mutation);
+    }
+
+    // Applies one batch, which includes the caller's own mutation, then hands over or retires
+    private void drain(Long cardId, CardQueue queue) {
+        List<PendingMutation> batch = new ArrayList<>();
+        queue.lock.lock();
+        try {
+            while (batch.size() < maxBatchSize && !queue.waiting.isEmpty()) {
+                batch.add(queue.waiting.poll());
+            }
+        } finally {
+            queue.lock.unlock();
+        }
+
+        try {
+            applyBatch(batch);
+        } finally {
+            PendingMutation next;
+            queue.lock.lock();
+            try {
+                next = queue.waiting.peek();
+                if (next == null) {
+                    queue.draining = false;
+                    queue.retired = true;
+                    queues.remove(cardId, queue);
+                }
+            } finally {
+                queue.lock.unlock();
+            }
+            if (next != null) {
+                next.turn.complete(null);
+            }
+        }
+    }
+
+    private void applyBatch(List<PendingMutation> batch) {
+        metrics.recordCoalescedBatch(batch.size());
+        if (batch.size() == 1) {
+            applyAlone(batch.get(0));
+            return;
+        }
+
+        List<CardOperation> operations = new ArrayList<>(batch.size());
+        for (PendingMutation mutation : batch) {
+            operations.add(mutation.operation);
+        }
+        List<BatchOperationResult> results;
+        try {
+            results = balanceEngine.applyAll(operations);
+        } catch (RuntimeException e) {
+            // Nothing was committed, e.g. a version conflict with a writer outside this queue; one
+            // failure must not fail the whole batch, so each mutation gets its own attempt and outcome
+            log.warn("Coalesced batch of {} mutations failed, applying them one by one", batch.size(), e);
+            for (PendingMutation mutation : batch) {
+                applyAlone(mutation);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMutation mutation = batch.get(i);
+            BatchOperationResult result = results.get(i);
+            if (result.getErrorCode() == null) {
+                mutation.result.complete(new SpendResponse(result.getCardId(), result.getBalanceMinor()));
+            } else {
+                mutation.result.completeExceptionally(toException(mutation.operation, result));
+            }
+        }
+    }
+
+    private void applyAlone(PendingMutation mutation) {
+        try {
+            mutation.result.complete(applyDirectly(mutation.operation));
+        } catch (RuntimeException e) {
+            mutation.result.completeExceptionally(e);
+        }
+    }
+
+    private SpendResponse applyDirectly(CardOperation operation) {
+        return operation.isSpend()
+                ? balanceEngine.spend(operation.cardId(), operation.amount(), operation.idempotencyKey())
+                : balanceEngine.topUp(operation.cardId(), operation.amount(), operation.idempotencyKey());
+    }
+
+    // The same exceptions the engine would have thrown for the mutation on its own
+    private static RuntimeException toException(CardOperation operation, BatchOperationResult result) {
+        return switch (result.getErrorCode()) {
+            case BatchOperationResult.CARD_NOT_FOUND -> new CardNotFoundException(operation.cardId());
+            case BatchOperationResult.INSUFFICIENT_BALANCE -> new InsufficientBalanceException();
+            default -> new IllegalStateException(result.getMessage());
+        };
+    }
+
+    private static SpendResponse await(PendingMutation mutation) {
+        try {
+            return mutation.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class CardQueue {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<PendingMutation> waiting = new ArrayDeque<>();
+        // A caller is applying this card's mutations; the rest wait for it
+        private boolean draining;
+        private boolean retired;
+    }
+
+    private static final class PendingMutation {
+
+        private final CardOperation operation;
+        private final CompletableFuture<SpendResponse> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> turn = new CompletableFuture<>();
+
+        private PendingMutation(CardOperation operation) {
+            this.operation = operation;
+        }
+    }
+}
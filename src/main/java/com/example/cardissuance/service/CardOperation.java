@@ -0,0 +1,40 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.money.Money;
+
+/**
+ * A validated spend or top-up against one card, amount in minor units. The idempotency key,
+ * if any, is stored on the resulting transaction row.
+ */
+public record CardOperation(Long cardId, String type, long amount, String idempotencyKey) {
+
+    public CardOperation(Long cardId, String type, long amount) {
+        this(cardId, type, amount, null);
+    }
+
+    public boolean isSpend() {
+        return "SPEND".equals(type);
+    }
+
+    /**
+     * Applies this operation to a loaded card, leaving it untouched if the balance is insufficient.
+     */
+    public void applyTo(Card card) {
+        card.setBalanceMinor(applyTo(card.getBalanceMinor()));
+    }
+
+    /**
+     * New balance after this operation.
+     */
+    public long applyTo(long balance) {
+        if (isSpend()) {
+            if (amount > balance) {
+                throw new InsufficientBalanceException();
+            }
+            return balance - amount;
+        }
+        return Money.add(balance, amount);
+    }
+}
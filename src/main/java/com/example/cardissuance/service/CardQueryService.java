@@ -0,0 +1,57 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.TransactionPage;
+import com.example.cardissuance.readmodel.CardReadModel;
+import com.example.cardissuance.readmodel.ReadConsistency;
+import com.example.cardissuance.readmodel.ReadResult;
+import com.example.cardissuance.service.CardMetrics.Operation;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Query side of {@code GET /cards/{id}} and history pages: eventual reads go to the
+ * {@link CardReadModel} when it has a fresh enough view, everything else to {@link CardService}
+ * and the primary tables. Both are timed as one {@code card.operation}, tagged with the source
+ * that answered.
+ */
+@Service
+public class CardQueryService {
+
+    private final CardService cardService;
+    private final CardReadModel readModel;
+    private final CardMetrics metrics;
+
+    public CardQueryService(CardService cardService, CardReadModel readModel, CardMetrics metrics) {
+        this.cardService = cardService;
+        this.readModel = readModel;
+        this.metrics = metrics;
+    }
+
+    public ReadResult<CardSnapshot> getCard(Long id, ReadConsistency consistency) {
+        return metrics.recordRead(Operation.GET_CARD, () -> {
+            if (consistency == ReadConsistency.EVENTUAL) {
+                ReadResult<CardSnapshot> read = readModel.card(id);
+                if (read != null) {
+                    return read;
+                }
+            }
+            return ReadResult.primary(cardService.readCard(id));
+        });
+    }
+
+    public ReadResult<TransactionPage> getTransactions(Long cardId, Long after, int limit,
+                                                       ReadConsistency consistency) {
+        cardService.validatePageLimit(limit);
+        return metrics.recordRead(Operation.GET_TRANSACTIONS, () -> {
+            if (consistency == ReadConsistency.EVENTUAL) {
+                ReadResult<TransactionPage> read = readModel.page(cardId, after == null ? 0L : after, limit);
+                if (read != null) {
+                    metrics.recordHistoryRows(read.value().getItems().size());
+                    return read;
+                }
+            }
+            return ReadResult.primary(cardService.readTransactions(cardId, after, limit));
+        });
+    }
+}
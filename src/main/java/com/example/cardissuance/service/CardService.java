@@ -1,103 +1,463 @@
 package com.example.cardissuance.service;
 
 
+import com.example.cardissuance.archive.TransactionArchive;
+import com.example.cardissuance.cache.CardCache;
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.cache.IdempotencyCache;
+import com.example.cardissuance.dto.BatchOperationRequest;
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.CardLimitRequest;
+import com.example.cardissuance.dto.CardLimitResponse;
 import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.CardSummary;
 import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.dto.TransactionPage;
 import com.example.cardissuance.dto.TransactionResponse;
 import com.example.cardissuance.entity.Card;
-import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.entity.CardLimit;
+import com.example.cardissuance.entity.RollupGranularity;
 import com.example.cardissuance.exception.CardNotFoundException;
-import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.exception.IdempotencyKeyReusedException;
+import com.example.cardissuance.exception.SpendLimitExceededException;
+import com.example.cardissuance.limits.SpendLimiter;
+import com.example.cardissuance.money.Money;
+import com.example.cardissuance.repository.CardLimitRepository;
 import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.CardRollupRepository;
 import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.CardMetrics.Operation;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class CardService {
 
     private final CardRepository cardRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionArchive archive;
+    private final CardRollupRepository rollupRepository;
+    private final CardLimitRepository limitRepository;
+    private final BalanceEngine balanceEngine;
+    private final CardMutationCoalescer coalescer;
+    private final SpendLimiter spendLimiter;
+    private final CardCache cardCache;
+    private final IdempotencyCache idempotencyCache;
+    private final CardMetrics metrics;
+    private final int maxBatchOperations;
+    private final int maxPageSize;
 
     public CardService(CardRepository cardRepository,
-                   TransactionRepository transactionRepository) {
+                   TransactionRepository transactionRepository,
+                   TransactionArchive archive,
+                   CardRollupRepository rollupRepository,
+                   CardLimitRepository limitRepository,
+                   BalanceEngine balanceEngine,
+                   CardMutationCoalescer coalescer,
+                   SpendLimiter spendLimiter,
+                   CardCache cardCache,
+                   IdempotencyCache idempotencyCache,
+                   CardMetrics metrics,
+                   @Value("${card.batch.max-operations:10000}") int maxBatchOperations,
+                   @Value("${card.history.max-page-size:1000}") int maxPageSize) {
         this.cardRepository = cardRepository;
         this.transactionRepository = transactionRepository;
+        this.archive = archive;
+        this.rollupRepository = rollupRepository;
+        this.limitRepository = limitRepository;
+        this.balanceEngine = balanceEngine;
+        this.coalescer = coalescer;
+        this.spendLimiter = spendLimiter;
+        this.cardCache = cardCache;
+        this.idempotencyCache = idempotencyCache;
+        this.metrics = metrics;
+        this.maxBatchOperations = maxBatchOperations;
+        this.maxPageSize = maxPageSize;
     }
 
     public Card createCard(CardRequest request) {
+        Card card = newCard(request);
+
+        return metrics.record(Operation.CREATE_CARD, () -> {
+            Card saved = balanceEngine.createCard(card);
+            cardCache.put(CardSnapshot.of(saved), cardCache.stamp(saved.getId()));
+            return saved;
+        });
+    }
+
+    /**
+     * Validates a card request and builds the unsaved card. Shared with the bulk importer.
+     */
+    public static Card newCard(CardRequest request) {
+        if (request.getInitialBalance() == null) {
+            throw new IllegalArgumentException("Initial balance is required");
+        }
         if (request.getInitialBalance().compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Initial balance cannot be negative");
         }
 
         Card card = new Card();
         card.setCardholderName(request.getCardholderName());
-        card.setBalance(request.getInitialBalance());
+        card.setBalanceMinor(Money.toMinor(request.getInitialBalance()));
+        card.setOpeningBalanceMinor(card.getBalanceMinor());
         card.setCreatedAt(Instant.now());
-
-        return cardRepository.saveAndFlush(card);
+        return card;
     }
 
-    @Transactional
     public SpendResponse spend(Long cardId, BigDecimal amount) {
-    Card card = cardRepository.findById(cardId)
-            .orElseThrow(() -> new CardNotFoundException(cardId));
+        return spend(cardId, amount, null);
+    }
 
-    if (amount.compareTo(card.getBalance()) > 0) {
-        throw new InsufficientBalanceException();
+    /**
+     * Spend with an optional Idempotency-Key. A replayed key gets the original response and
+     * does not touch the card.
+     */
+    public SpendResponse spend(Long cardId, BigDecimal amount, String idempotencyKey) {
+        // A negative spend would credit the card past every balance and limit check
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Spend amount must be positive");
+        }
+        long minor = Money.toMinor(amount);
+        return metrics.record(Operation.SPEND, () -> idempotent(cardId, idempotencyKey, "SPEND", minor,
+                () -> limitedSpend(cardId, minor, idempotencyKey)));
     }
 
-    card.setBalance(card.getBalance().subtract(amount));
-    cardRepository.save(card);
+    // Limits are checked in memory; the reservation is handed back if the spend fails
+    private SpendResponse limitedSpend(Long cardId, long amount, String idempotencyKey) {
+        long reservedAt = spendLimiter.reserve(cardId, amount);
+        try {
+            return coalescer.apply(new CardOperation(cardId, "SPEND", amount, idempotencyKey));
+        } catch (RuntimeException e) {
+            spendLimiter.release(cardId, amount, reservedAt);
+            throw e;
+        }
+    }
 
-    transactionRepository.save(
-            new Transaction(card, amount, "SPEND")
-    );
+    public CardSnapshot getCard(Long id) {
+        return metrics.record(Operation.GET_CARD, () -> readCard(id));
+    }
 
-    return new SpendResponse(card.getId(), card.getBalance());
+    // Untimed, for CardQueryService, which times the read whichever side answers it
+    CardSnapshot readCard(Long id) {
+        CardSnapshot snapshot = loadSnapshot(id);
+        return snapshot.withBalance(balanceEngine.currentBalance(id, snapshot.getBalanceMinor()));
     }
 
-    public Card getCard(Long id) {
-        return cardRepository.findById(id)
-                .orElseThrow(() -> new CardNotFoundException(id));
+    /**
+     * One page of history in id order, starting after the {@code after} cursor (exclusive).
+     * Archived months are merged in, after the hot table is read.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactions(Long cardId, Long after, int limit) {
+        validatePageLimit(limit);
+
+        return metrics.record(Operation.GET_TRANSACTIONS, () -> readTransactions(cardId, after, limit));
+    }
+
+    // Untimed, for CardQueryService; runs in the caller's transaction, or each query in its own
+    TransactionPage readTransactions(Long cardId, Long after, int limit) {
+        loadSnapshot(cardId);
+
+        // One extra row tells us whether there is a next page
+        long from = after == null ? 0L : after;
+        List<TransactionResponse> items = archive.mergePage(cardId, from,
+                transactionRepository.findPage(cardId, from, PageRequest.ofSize(limit + 1)), limit + 1);
+
+        if (items.size() <= limit) {
+            metrics.recordHistoryRows(items.size());
+            return new TransactionPage(items, null);
+        }
+        List<TransactionResponse> page = items.subList(0, limit);
+        metrics.recordHistoryRows(limit);
+        return new TransactionPage(page, page.get(limit - 1).getId());
     }
 
+    public void validatePageLimit(int limit) {
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize);
+        }
+    }
+
+    /**
+     * Feeds the whole history to {@code sink} from a database cursor, merged with the archived
+     * months, without materialising it.
+     */
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactions(Long cardId) {
-    cardRepository.findById(cardId)
-            .orElseThrow(() -> new CardNotFoundException(cardId));
+    public void streamTransactions(Long cardId, Consumer<TransactionResponse> sink) {
+        long[] count = new long[1];
+        try (Stream<TransactionResponse> rows = archive.mergeHistory(cardId,
+                transactionRepository.streamByCardId(cardId))) {
+            rows.forEach(tx -> {
+                sink.accept(tx);
+                count[0]++;
+            });
+        }
+        metrics.recordHistoryRows(count[0]);
+    }
+
+    /**
+     * Totals from the day or month rollups between {@code from} and {@code to} (inclusive, UTC).
+     * Reads one row per bucket, however many transactions the card has. Defaults to
+     * month-to-date for days and year-to-date for months.
+     */
+    public CardSummary getSummary(Long cardId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from
+                : granularity == RollupGranularity.DAY ? end.withDayOfMonth(1) : end.withDayOfYear(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+
+        return metrics.record(Operation.GET_SUMMARY, () -> {
+            loadSnapshot(cardId);
+            return new CardSummary(cardId, granularity, start, end,
+                    rollupRepository.findRange(cardId, granularity, granularity.bucketOf(start), end));
+        });
+    }
+
+    public CardLimitResponse getLimits(Long cardId) {
+        loadSnapshot(cardId);
+        return new CardLimitResponse(limitRepository.findById(cardId)
+                .orElseGet(() -> new CardLimit(cardId, null, null, null, null)));
+    }
+
+    public CardLimitResponse setLimits(Long cardId, CardLimitRequest request) {
+        loadSnapshot(cardId);
+        CardLimit limit = limitRepository.save(toLimit(cardId, request));
+        spendLimiter.update(limit);
+        return new CardLimitResponse(limit);
+    }
+
+    public void removeLimits(Long cardId) {
+        loadSnapshot(cardId);
+        limitRepository.deleteById(cardId);
+        spendLimiter.remove(cardId);
+    }
+
+    private static CardLimit toLimit(Long cardId, CardLimitRequest request) {
+        Long windowSeconds = request.getWindowSeconds();
+        boolean windowed = request.getMaxWindowAmount() != null || request.getMaxWindowCount() != null;
+        if (windowed != (windowSeconds != null)) {
+            throw new IllegalArgumentException("windowSeconds is required with, and only with, window limits");
+        }
+        if (windowSeconds != null && (windowSeconds <= 0 || windowSeconds > SpendLimiter.MAX_WINDOW.toSeconds())) {
+            throw new IllegalArgumentException(
+                    "windowSeconds must be between 1 and " + SpendLimiter.MAX_WINDOW.toSeconds());
+        }
+        if (request.getMaxWindowCount() != null && request.getMaxWindowCount() <= 0) {
+            throw new IllegalArgumentException("maxWindowCount must be positive");
+        }
+        return new CardLimit(cardId,
+                positiveMinor(request.getMaxPerTransaction(), "maxPerTransaction"),
+                windowSeconds,
+                positiveMinor(request.getMaxWindowAmount(), "maxWindowAmount"),
+                request.getMaxWindowCount());
+    }
+
+    private static Long positiveMinor(BigDecimal amount, String field) {
+        if (amount == null) {
+            return null;
+        }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException(field + " must be positive");
+        }
+        return Money.toMinor(amount);
+    }
 
-    return transactionRepository.findByCardId(cardId)
-            .stream()
-            .map(tx -> new TransactionResponse(
-                    tx.getAmount(),
-                    tx.getType(),
-                    tx.getCreatedAt()
-            ))
-            .toList();
+    public void requireCard(Long cardId) {
+        loadSnapshot(cardId);
+    }
+
+    // Read-through: cache hit, or load from the database and populate the cache
+    private CardSnapshot loadSnapshot(Long id) {
+        CardSnapshot snapshot = cardCache.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Checked before the table: the engine drops a pending card only once its row is committed
+        CardSnapshot pending = balanceEngine.pendingCard(id);
+        if (pending != null) {
+            return pending;
+        }
+
+        long stamp = cardCache.stamp(id);
+        snapshot = CardSnapshot.of(cardRepository.findById(id)
+                .orElseThrow(() -> new CardNotFoundException(id)));
+        cardCache.put(snapshot, stamp);
+        return snapshot;
     }
 
-    @Transactional
     public SpendResponse topUp(Long cardId, BigDecimal amount) {
-    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-        throw new IllegalArgumentException("Top-up amount must be positive");
+        return topUp(cardId, amount, null);
     }
 
-    Card card = cardRepository.findById(cardId)
-            .orElseThrow(() -> new CardNotFoundException(cardId));
+    public SpendResponse topUp(Long cardId, BigDecimal amount, String idempotencyKey) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Top-up amount must be positive");
+        }
+        long minor = Money.toMinor(amount);
 
-    card.setBalance(card.getBalance().add(amount));
-    cardRepository.save(card);
+        return metrics.record(Operation.TOP_UP, () -> idempotent(cardId, idempotencyKey, "TOPUP", minor,
+                () -> coalescer.apply(new CardOperation(cardId, "TOPUP", minor, idempotencyKey))));
+    }
 
-    transactionRepository.save(
-        new Transaction(card, amount, "TOPUP")
-    );
-       return new SpendResponse(card.getId(), card.getBalance());
+    // The first request for a key applies the mutation; replays and concurrent duplicates get its result,
+    // and a different request under the same key is refused
+    private SpendResponse idempotent(Long cardId, String idempotencyKey, String type, long amountMinor,
+                                     Supplier<SpendResponse> mutation) {
+        if (idempotencyKey == null) {
+            return mutate(cardId, mutation);
+        }
+        validateIdempotencyKey(idempotencyKey);
+
+        CompletableFuture<SpendResponse> claim = new CompletableFuture<>();
+        CompletableFuture<SpendResponse> existing =
+                idempotencyCache.putIfAbsent(cardId, idempotencyKey, type, amountMinor, claim);
+        if (existing != null) {
+            metrics.recordIdempotentReplay();
+            return await(existing);
+        }
+
+        try {
+            // Not in memory: the key may still be on a transaction row from before eviction or restart
+            SpendResponse response = transactionRepository.findRecordedRequest(cardId, idempotencyKey)
+                    .map(recorded -> {
+                        if (!recorded.matches(type, amountMinor)) {
+                            throw new IdempotencyKeyReusedException(idempotencyKey);
+                        }
+                        metrics.recordIdempotentReplay();
+                        return new SpendResponse(cardId, recorded.balanceAfterMinor());
+                    })
+                    .orElseGet(() -> mutate(cardId, mutation));
+            claim.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyCache.remove(cardId, idempotencyKey, claim);
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private SpendResponse mutate(Long cardId, Supplier<SpendResponse> mutation) {
+        SpendResponse response = mutation.get();
+        cardCache.invalidate(cardId);
+        return response;
+    }
+
+    private static SpendResponse await(CompletableFuture<SpendResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > IdempotencyCache.MAX_KEY_LENGTH
+                || !idempotencyKey.chars().allMatch(c -> c > ' ' && c < 0x7f)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to "
+                    + IdempotencyCache.MAX_KEY_LENGTH + " printable ASCII characters");
+        }
+    }
+
+    public List<BatchOperationResult> applyBatch(List<BatchOperationRequest> requests) {
+        if (requests.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("Batch cannot exceed " + maxBatchOperations + " operations");
+        }
+
+        BatchOperationResult[] results = new BatchOperationResult[requests.size()];
+        List<CardOperation> operations = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        long[] reservations = new long[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            BatchOperationRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchOperationResult.failure(
+                        request.getCardId(), BatchOperationResult.INVALID_OPERATION, error);
+                continue;
+            }
+            CardOperation operation = new CardOperation(
+                    request.getCardId(), request.getType(), Money.toMinor(request.getAmount()));
+            if (operation.isSpend()) {
+                try {
+                    reservations[operations.size()] = spendLimiter.reserve(operation.cardId(), operation.amount());
+                } catch (SpendLimitExceededException e) {
+                    results[i] = BatchOperationResult.failure(operation.cardId(), e);
+                    continue;
+                }
+            }
+            operations.add(operation);
+            positions.add(i);
+        }
+
+        List<BatchOperationResult> applied;
+        try {
+            applied = metrics.record(Operation.BATCH, () -> balanceEngine.applyAll(operations));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < operations.size(); i++) {
+                releaseSpend(operations.get(i), reservations[i]);
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < applied.size(); i++) {
+            results[positions.get(i)] = applied.get(i);
+            if (applied.get(i).getErrorCode() == null) {
+                cardCache.invalidate(operations.get(i).cardId());
+            } else {
+                releaseSpend(operations.get(i), reservations[i]);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void releaseSpend(CardOperation operation, long reservedAt) {
+        if (operation.isSpend()) {
+            spendLimiter.release(operation.cardId(), operation.amount(), reservedAt);
+        }
+    }
+
+    private static String validate(BatchOperationRequest request) {
+        if (request.getCardId() == null) {
+            return "Card id is required";
+        }
+        if (!"SPEND".equals(request.getType()) && !"TOPUP".equals(request.getType())) {
+            return "Type must be SPEND or TOPUP";
+        }
+        if (request.getAmount() == null) {
+            return "Amount is required";
+        }
+        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Amount must be positive";
+        }
+        try {
+            Money.toMinor(request.getAmount());
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        return null;
     }
 
 }
@@ -0,0 +1,301 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group commit: mutations from concurrent callers are collected for up to
+ * {@code card.group-commit.window-micros} or {@code card.group-commit.max-batch-size} items,
+ * applied in arrival order in one database transaction and committed once. Each caller is
+ * completed with its own result after the commit. If the group's transaction fails, e.g. on a
+ * duplicate idempotency key, its mutations are retried one transaction each, so only the
+ * offending caller gets the error.
+ *
+ * <p>Callers wait at most {@code card.group-commit.await-timeout}. Enqueueing and shutdown take
+ * one lock, so a mutation is either queued before the committer stops, and then committed or
+ * failed by it, or refused outright.
+ */
+@Component
+@ConditionalOnProperty(name = "card.engine", havingValue = "group-commit")
+public class GroupCommitBalanceEngine implements BalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitBalanceEngine.class);
+
+    private final BlockingQueue<PendingMutation> queue = new LinkedBlockingQueue<>();
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final RollupWriter rollupWriter;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final Duration awaitTimeout;
+    private final ReentrantLock lifecycle = new ReentrantLock();
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    public GroupCommitBalanceEngine(CardRepository cardRepository,
+                                    TransactionRepository transactionRepository,
+                                    RollupWriter rollupWriter,
+                                    OutboxWriter outboxWriter,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${card.group-commit.max-batch-size:256}") int maxBatchSize,
+                                    @Value("${card.group-commit.window-micros:2000}") long windowMicros,
+                                    @Value("${card.group-commit.await-timeout:PT10S}") Duration awaitTimeout) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.rollupWriter = rollupWriter;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.awaitTimeout = awaitTimeout;
+        this.committer = new Thread(this::run, "group-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        lifecycle.lock();
+        try {
+            running = false;
+        } finally {
+            lifecycle.unlock();
+        }
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+        if (committer.isAlive()) {
+            // Stuck in a commit: interrupting it makes the committer fail whatever is still queued
+            log.warn("Group committer did not stop within 10s, interrupting it");
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(1));
+        }
+    }
+
+    @Override
+    public Card createCard(Card card) {
+        return cardRepository.saveAndFlush(card);
+    }
+
+    @Override
+    public SpendResponse spend(Long cardId, long amount, String idempotencyKey) {
+        return submit(new CardOperation(cardId, "SPEND", amount, idempotencyKey));
+    }
+
+    @Override
+    public SpendResponse topUp(Long cardId, long amount, String idempotencyKey) {
+        return submit(new CardOperation(cardId, "TOPUP", amount, idempotencyKey));
+    }
+
+    /**
+     * Enqueues the whole batch before waiting, so it shares as few commits as possible.
+     */
+    @Override
+    public List<BatchOperationResult> applyAll(List<CardOperation> operations) {
+        List<PendingMutation> mutations = new ArrayList<>(operations.size());
+        for (CardOperation operation : operations) {
+            mutations.add(new PendingMutation(operation));
+        }
+        enqueue(mutations);
+
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (PendingMutation mutation : mutations) {
+            try {
+                SpendResponse response = await(mutation);
+                results.add(BatchOperationResult.success(response.getId(), response.getRemainingBalanceMinor()));
+            } catch (CardNotFoundException | InsufficientBalanceException e) {
+                results.add(BatchOperationResult.failure(mutation.operation.cardId(), e));
+            }
+        }
+        return results;
+    }
+
+    private SpendResponse submit(CardOperation operation) {
+        PendingMutation mutation = new PendingMutation(operation);
+        enqueue(List.of(mutation));
+        return await(mutation);
+    }
+
+    private void enqueue(List<PendingMutation> mutations) {
+        lifecycle.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Group committer is shut down");
+            }
+            queue.addAll(mutations);
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    // On timeout the mutation may still be committed later; the caller only learns it was not in time
+    private SpendResponse await(PendingMutation mutation) {
+        try {
+            return mutation.result.get(awaitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Group commit did not complete within " + awaitTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit");
+        }
+    }
+
+    private void run() {
+        List<PendingMutation> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMutation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Interrupted while collecting, so nothing of this batch was committed
+                Thread.currentThread().interrupt();
+                for (PendingMutation collected : batch) {
+                    collected.result.completeExceptionally(new IllegalStateException("Group committer is shut down"));
+                }
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        PendingMutation left;
+        while ((left = queue.poll()) != null) {
+            left.result.completeExceptionally(new IllegalStateException("Group committer is shut down"));
+        }
+    }
+
+    private void collect(List<PendingMutation> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingMutation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingMutation> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} mutations failed, retrying them one by one", batch.size(), e);
+            for (PendingMutation mutation : batch) {
+                commit(List.of(mutation));
+            }
+            return;
+        }
+
+        for (PendingMutation mutation : batch) {
+            if (mutation.error != null) {
+                mutation.result.completeExceptionally(mutation.error);
+            } else {
+                mutation.result.complete(mutation.response);
+            }
+        }
+    }
+
+    private void apply(List<PendingMutation> batch) {
+        Set<Long> cardIds = new HashSet<>();
+        for (PendingMutation mutation : batch) {
+            cardIds.add(mutation.operation.cardId());
+        }
+
+        Map<Long, Card> cards = new HashMap<>();
+        for (Card card : cardRepository.findAllById(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+
+        List<Transaction> rows = new ArrayList<>(batch.size());
+        for (PendingMutation mutation : batch) {
+            // Left over from a group attempt that rolled back
+            mutation.response = null;
+            mutation.error = null;
+            CardOperation operation = mutation.operation;
+            Card card = cards.get(operation.cardId());
+            if (card == null) {
+                mutation.error = new CardNotFoundException(operation.cardId());
+                continue;
+            }
+
+            try {
+                operation.applyTo(card);
+            } catch (InsufficientBalanceException e) {
+                mutation.error = e;
+                continue;
+            }
+
+            Transaction transaction = new Transaction(
+                    card, operation.amount(), operation.type(), card.getBalanceMinor());
+            transaction.setIdempotencyKey(operation.idempotencyKey());
+            rows.add(transaction);
+            mutation.response = new SpendResponse(card.getId(), card.getBalanceMinor());
+        }
+        transactionRepository.saveAll(rows);
+        rollupWriter.record(rows);
+        outboxWriter.record(rows);
+    }
+
+    private static final class PendingMutation {
+
+        private final CardOperation operation;
+        private final CompletableFuture<SpendResponse> result = new CompletableFuture<>();
+        private SpendResponse response;
+        private RuntimeException error;
+
+        private PendingMutation(CardOperation operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.BatchOperationResult;
+import com.example.cardissuance.dto.SpendResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.money.Money;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default engine: read-modify-write through JPA, guarded by {@code Card.@Version}.
+ */
+@Component
+@ConditionalOnProperty(name = "card.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaBalanceEngine implements BalanceEngine {
+
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final RollupWriter rollupWriter;
+    private final OutboxWriter outboxWriter;
+
+    public JpaBalanceEngine(CardRepository cardRepository,
+                            TransactionRepository transactionRepository,
+                            RollupWriter rollupWriter,
+                            OutboxWriter outboxWriter) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.rollupWriter = rollupWriter;
+        this.outboxWriter = outboxWriter;
+    }
+
+    @Override
+    public Card createCard(Card card) {
+        return cardRepository.saveAndFlush(card);
+    }
+
+    @Override
+    @Transactional
+    public SpendResponse spend(Long cardId, long amount, String idempotencyKey) {
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+
+        if (amount > card.getBalanceMinor()) {
+            throw new InsufficientBalanceException();
+        }
+
+        card.setBalanceMinor(card.getBalanceMinor() - amount);
+        cardRepository.save(card);
+
+        Transaction transaction = new Transaction(card, amount, "SPEND", card.getBalanceMinor());
+        transaction.setIdempotencyKey(idempotencyKey);
+        transactionRepository.save(transaction);
+        rollupWriter.record(transaction);
+        outboxWriter.record(transaction);
+
+        return new SpendResponse(card.getId(), card.getBalanceMinor());
+    }
+
+    @Override
+    @Transactional
+    public SpendResponse topUp(Long cardId, long amount, String idempotencyKey) {
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+
+        card.setBalanceMinor(Money.add(card.getBalanceMinor(), amount));
+        cardRepository.save(card);
+
+        Transaction transaction = new Transaction(card, amount, "TOPUP", card.getBalanceMinor());
+        transaction.setIdempotencyKey(idempotencyKey);
+        transactionRepository.save(transaction);
+        rollupWriter.record(transaction);
+        outboxWriter.record(transaction);
+
+        return new SpendResponse(card.getId(), card.getBalanceMinor());
+    }
+
+    /**
+     * Loads every referenced card once and writes all rows in one transaction.
+     */
+    @Override
+    @Transactional
+    public List<BatchOperationResult> applyAll(List<CardOperation> operations) {
+        Set<Long> cardIds = new HashSet<>();
+        for (CardOperation operation : operations) {
+            cardIds.add(operation.cardId());
+        }
+
+        Map<Long, Card> cards = new HashMap<>();
+        for (Card card : cardRepository.findAllById(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+
+        List<Transaction> rows = new ArrayList<>(operations.size());
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+        for (CardOperation operation : operations) {
+            Card card = cards.get(operation.cardId());
+            if (card == null) {
+                results.add(BatchOperationResult.failure(
+                        operation.cardId(), new CardNotFoundException(operation.cardId())));
+                continue;
+            }
+
+            try {
+                operation.applyTo(card);
+            } catch (InsufficientBalanceException e) {
+                results.add(BatchOperationResult.failure(operation.cardId(), e));
+                continue;
+            }
+
+            Transaction transaction = new Transaction(
+                    card, operation.amount(), operation.type(), card.getBalanceMinor());
+            transaction.setIdempotencyKey(operation.idempotencyKey());
+            rows.add(transaction);
+            results.add(BatchOperationResult.success(card.getId(), card.getBalanceMinor()));
+        }
+        transactionRepository.saveAll(rows);
+        rollupWriter.record(rows);
+        outboxWriter.record(rows);
+
+        return results;
+    }
+
+    // Concurrent read-modify-writes of one card lose on @Version; applied together they cannot
+    @Override
+    public boolean benefitsFromCoalescing() {
+        return true;
+    }
+}
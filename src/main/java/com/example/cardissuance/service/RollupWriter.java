@@ -0,0 +1,76 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.entity.RollupGranularity;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.repository.CardRollupRepository;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds new transaction rows into their card's day and month rollups. Must be called inside
+ * the database transaction that saves the rows, after the card row has been updated.
+ */
+@Component
+public class RollupWriter {
+
+    private final CardRollupRepository rollupRepository;
+
+    public RollupWriter(CardRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    public void record(Transaction row) {
+        record(List.of(row));
+    }
+
+    /**
+     * Aggregates the rows per bucket first, so a batch costs one upsert per touched bucket.
+     */
+    public void record(List<Transaction> rows) {
+        Map<Bucket, Delta> deltas = new LinkedHashMap<>();
+        for (Transaction row : rows) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Bucket bucket = new Bucket(row.getCardId(), granularity, granularity.bucketOf(row.getCreatedAt()));
+                deltas.computeIfAbsent(bucket, b -> new Delta()).add(row);
+            }
+        }
+
+        for (Map.Entry<Bucket, Delta> entry : deltas.entrySet()) {
+            Bucket bucket = entry.getKey();
+            Delta delta = entry.getValue();
+            String granularity = bucket.granularity().name();
+            int updated = rollupRepository.increment(bucket.cardId(), granularity, bucket.start(),
+                    delta.spendMinor, delta.spendCount, delta.topUpMinor, delta.topUpCount);
+            if (updated == 0) {
+                rollupRepository.insert(bucket.cardId(), granularity, bucket.start(),
+                        delta.spendMinor, delta.spendCount, delta.topUpMinor, delta.topUpCount);
+            }
+        }
+    }
+
+    private record Bucket(Long cardId, RollupGranularity granularity, LocalDate start) {
+    }
+
+    private static final class Delta {
+
+        private long spendMinor;
+        private long spendCount;
+        private long topUpMinor;
+        private long topUpCount;
+
+        private void add(Transaction row) {
+            if ("SPEND".equals(row.getType())) {
+                spendMinor += row.getAmountMinor();
+                spendCount++;
+            } else {
+                topUpMinor += row.getAmountMinor();
+                topUpCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.cardissuance.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Drives every {@code CardController} endpoint through the running server, so that a JVM
+ * started with {@code -XX:ArchiveClassesAtExit} records the classes real traffic loads:
+ * Jackson, Hibernate, Tomcat and the application's own request paths, not just startup.
+ * Used by the {@code fast-start} build to create its class-data sharing archive.
+ */
+public class TrainingRun {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainingRun.class);
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public TrainingRun(int port, ObjectMapper objectMapper) {
+        this.baseUrl = "http://localhost:" + port;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the exit code: 0, or 1 if any request failed, which fails the build
+     */
+    public int run(int iterations) {
+        try {
+            for (int i = 0; i < iterations; i++) {
+                exercise(i);
+            }
+            log.info("Training run completed {} iterations", iterations);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            log.error("Training run failed", e);
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private void exercise(int iteration) throws IOException, InterruptedException {
+        String created = send(post("/cards", "{\"cardholderName\":\"Training " + iteration
+                + "\",\"initialBalance\":1000}").build());
+        long id = objectMapper.readTree(created).get("id").asLong();
+        String card = "/cards/" + id;
+
+        send(post(card + "/spend", "{\"amount\":1.25}").header("Idempotency-Key", "training-" + iteration).build());
+        send(post(card + "/topup", "{\"amount\":10}").build());
+        send(post("/cards/operations:batch", "[{\"cardId\":" + id + ",\"type\":\"SPEND\",\"amount\":2},"
+                + "{\"cardId\":" + id + ",\"type\":\"TOPUP\",\"amount\":2}]").build());
+        send(put(card + "/limits", "{\"maxPerTransaction\":500}").build());
+        send(get(card + "/limits").build());
+        send(get(card).build());
+        send(get(card + "?consistency=strong").build());
+        send(get(card + "/transactions?limit=2").build());
+        send(get(card + "/transactions").header("Accept", "application/x-ndjson").build());
+        send(get(card + "/summary").build());
+        send(get("/cards/events?wait=0&limit=10").build());
+        send(HttpRequest.newBuilder(uri("/cards/import"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString("cardholderName,initialBalance\nImported,5\n"))
+                .build());
+        send(get("/cards/transactions:export").build());
+        send(HttpRequest.newBuilder(uri("/cards/balances:verify")).POST(HttpRequest.BodyPublishers.noBody()).build());
+        send(get("/actuator/prometheus").build());
+        send(HttpRequest.newBuilder(uri(card + "/limits")).DELETE().build());
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(request.method() + " " + request.uri()
+                    + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path));
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private HttpRequest.Builder put(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
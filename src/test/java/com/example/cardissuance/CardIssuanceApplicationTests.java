@@ -1,13 +1,29 @@
 package com.example.cardissuance;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class CardIssuanceApplicationTests {
 
+	@Autowired
+	private ConfigurableApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// Registered without card.export.file, so an AOT build keeps it; it only acts when the property is set
+	@Test
+	void statementExportIsDecidedAtRunTime() throws Exception {
+		CommandLineRunner export = context.getBean("statementExport", CommandLineRunner.class);
+		export.run();
+		assertTrue(context.isActive());
+	}
+
 }
@@ -0,0 +1,71 @@
+package com.example.cardissuance.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadBackEveryFieldAndSeekByCard() throws Exception {
+        Instant createdAt = Instant.parse("2024-05-31T23:59:59.999999Z");
+        List<ArchivedTransaction> rows = List.of(
+                new ArchivedTransaction(3L, 10L, "TOPUP", 5_000L, 5_000L, createdAt),
+                new ArchivedTransaction(3L, 12L, "SPEND", 7_500L, -2_500L, createdAt.minusSeconds(3600)),
+                new ArchivedTransaction(3L, 400L, "SPEND", 1L, -2_501L, createdAt.minusNanos(1_000)),
+                new ArchivedTransaction(9L, 11L, "SPEND", 99L, 0L, Instant.parse("2024-05-01T00:00:00Z")));
+        Path path = dir.resolve("transactions-2024-05.arc");
+
+        assertEquals(4, ArchiveFile.write(path, YearMonth.of(2024, 5), rows.iterator()));
+        // Only the file itself is left behind
+        assertArrayEquals(new String[] {"transactions-2024-05.arc"}, dir.toFile().list());
+
+        ArchiveFile file = ArchiveFile.open(path);
+        assertEquals(YearMonth.of(2024, 5), file.month());
+        assertEquals(rows, collect(file.all()));
+        assertEquals(rows.subList(2, 3), collect(file.rows(3, 12)));
+        assertEquals(List.of(), collect(file.rows(3, 400)));
+        assertEquals(List.of(), collect(file.rows(5, 0)));
+        assertEquals(400, file.lastId(3));
+        assertEquals(0, file.lastId(5));
+    }
+
+    @Test
+    void shouldRejectRowsOutOfOrder() {
+        Instant now = Instant.now();
+        List<ArchivedTransaction> rows = List.of(
+                new ArchivedTransaction(2L, 5L, "SPEND", 1L, 1L, now),
+                new ArchivedTransaction(1L, 6L, "SPEND", 1L, 0L, now));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveFile.write(dir.resolve("out.arc"), YearMonth.of(2024, 5), rows.iterator()));
+    }
+
+    // Rows present on both sides while the archiver deletes them come out once
+    @Test
+    void shouldMergeSortedSourcesWithoutDuplicates() {
+        List<Integer> merged = collect(new MergingIterator<>(List.of(
+                List.of(1, 3, 5, 7).iterator(),
+                List.of(2, 3, 6).iterator(),
+                List.<Integer>of().iterator()), Integer::compare));
+
+        assertEquals(List.of(1, 2, 3, 5, 6, 7), merged);
+    }
+
+    private static <T> List<T> collect(Iterator<T> iterator) {
+        List<T> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+        return items;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.cardissuance.archive;
+
+import com.example.cardissuance.checkpoint.BalanceVerifier;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.TransactionPage;
+import com.example.cardissuance.dto.TransactionResponse;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.entity.Transaction;
+import com.example.cardissuance.export.StatementExporter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.CardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own context and archive directory; rows dated years back stand in for an old deployment
+@SpringBootTest(properties = {
+        "card.archive.enabled=true",
+        "card.checkpoint.settle-lag=PT0S"
+})
+class TransactionArchiverTest {
+
+    private static final Path ARCHIVE_DIR = createArchiveDir();
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("card.archive.dir", ARCHIVE_DIR::toString);
+    }
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceVerifier verifier;
+
+    @Autowired
+    private TransactionArchiver archiver;
+
+    @Autowired
+    private StatementExporter exporter;
+
+    @Test
+    void shouldArchiveCheckpointedMonthsAndMergeThemIntoReads() throws Exception {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Longstanding");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+        Card card = cardService.createCard(request);
+        Long id = card.getId();
+
+        Instant january = Instant.parse("2020-01-10T09:30:00.123456Z");
+        Long first = old(card, "SPEND", 1_000, 9_000, january);
+        Long second = old(card, "TOPUP", 500, 9_500, Instant.parse("2020-01-20T00:00:00Z"));
+        Long third = old(card, "SPEND", 2_000, 7_500, Instant.parse("2020-02-03T12:00:00Z"));
+        setBalance(id, 7_500);
+        cardService.spend(id, BigDecimal.ONE);
+        Long recent = latestId(id);
+        Thread.sleep(5);
+        verifier.verify(false);
+        // After the checkpoint: stays hot even though nothing else would keep it
+        cardService.topUp(id, BigDecimal.TEN);
+        Long uncovered = latestId(id);
+
+        assertEquals(3, archiver.archive());
+        assertTrue(Files.exists(ARCHIVE_DIR.resolve("transactions-2020-01.arc")));
+        assertTrue(Files.exists(ARCHIVE_DIR.resolve("transactions-2020-02.arc")));
+        assertEquals(List.of(recent, uncovered), ids(transactionRepository.findPage(id, 0L, PageRequest.ofSize(10))));
+
+        // Pages run across the archive and the hot table without a seam
+        TransactionPage page = cardService.getTransactions(id, null, 2);
+        assertEquals(List.of(first, second), ids(page.getItems()));
+        assertEquals(0, page.getItems().get(0).getAmount().compareTo(BigDecimal.TEN));
+        assertEquals(january, page.getItems().get(0).getCreatedAt());
+        page = cardService.getTransactions(id, page.getNextCursor(), 2);
+        assertEquals(List.of(third, recent), ids(page.getItems()));
+        page = cardService.getTransactions(id, page.getNextCursor(), 2);
+        assertEquals(List.of(uncovered), ids(page.getItems()));
+        assertNull(page.getNextCursor());
+
+        // A late row of an archived month is merged into that month's file on the next run
+        Long late = old(card, "SPEND", 100, 8_300, Instant.parse("2020-01-31T23:59:59Z"));
+        setBalance(id, 8_300);
+        Thread.sleep(5);
+        assertEquals(0, verifier.verify(false).getDriftCount());
+        assertEquals(1, archiver.archive());
+        assertEquals(0, archiver.archive());
+
+        List<Long> history = new ArrayList<>();
+        cardService.streamTransactions(id, tx -> history.add(tx.getId()));
+        assertEquals(List.of(first, second, third, recent, uncovered, late), history);
+        assertEquals(0, verifier.verify(false).getDriftCount());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StatementExporter.Export export = exporter.open(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31))) {
+            assertEquals(3, export.writeTo(out));
+        }
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.US_ASCII);
+        assertTrue(csv.contains(id + "," + first + ",SPEND,10.00,90.00,2020-01-10T09:30:00.123456Z\n"), csv);
+        assertTrue(csv.contains(id + "," + late + ",SPEND,1.00,83.00,2020-01-31T23:59:59Z\n"), csv);
+    }
+
+    private Long old(Card card, String type, long amountMinor, long balanceAfterMinor, Instant createdAt) {
+        return transactionRepository.save(new Transaction(card, amountMinor, type, balanceAfterMinor, createdAt)).getId();
+    }
+
+    private void setBalance(Long id, long balanceMinor) {
+        Card card = cardRepository.findById(id).orElseThrow();
+        card.setBalanceMinor(balanceMinor);
+        cardRepository.save(card);
+    }
+
+    private Long latestId(Long cardId) {
+        return transactionRepository.findLatest(cardId, PageRequest.ofSize(1)).get(0).getId();
+    }
+
+    private static List<Long> ids(List<TransactionResponse> items) {
+        return items.stream().map(TransactionResponse::getId).toList();
+    }
+
+    private static Path createArchiveDir() {
+        try {
+            return Files.createTempDirectory("card-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
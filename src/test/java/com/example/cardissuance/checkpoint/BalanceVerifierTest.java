@@ -0,0 +1,93 @@
+package com.example.cardissuance.checkpoint;
+
+import com.example.cardissuance.dto.BalanceVerificationReport;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.service.CardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own context, so the database holds only this test's cards; tiny chunks force range splitting
+@SpringBootTest(properties = {
+        "card.checkpoint.settle-lag=PT0S",
+        "card.verifier.chunk-size=2"
+})
+class BalanceVerifierTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private BalanceVerifier verifier;
+
+    @Test
+    void shouldReplayFromCheckpointsAndRepairDrift() throws Exception {
+        Long busy = createCard(100);
+        cardService.spend(busy, BigDecimal.valueOf(30));
+        cardService.topUp(busy, BigDecimal.TEN);
+        Long drifting = createCard(50);
+        cardService.spend(drifting, BigDecimal.valueOf(20));
+        Long untouched = createCard(10);
+        Thread.sleep(5);
+
+        // First run: no checkpoints yet, replayed from each card's first transaction
+        BalanceVerificationReport first = verifier.verify(false);
+        assertEquals(3, first.getCardsChecked());
+        assertEquals(3, first.getTransactionsReplayed());
+        assertEquals(0, first.getDriftCount());
+        assertEquals(2, first.getCheckpointsAdvanced());
+
+        cardService.spend(busy, BigDecimal.ONE);
+        Card card = cardRepository.findById(drifting).orElseThrow();
+        card.setBalanceMinor(99_900);
+        cardRepository.save(card);
+        // A card with no checkpoint and no transactions is checked against the balance it was issued with
+        Card idle = cardRepository.findById(untouched).orElseThrow();
+        idle.setBalanceMinor(5_000);
+        cardRepository.save(idle);
+
+        // Only the spend after the checkpoint is replayed
+        BalanceVerificationReport second = verifier.verify(false);
+        assertEquals(1, second.getTransactionsReplayed());
+        assertEquals(2, second.getDriftCount());
+        BalanceVerificationReport.Drift drift = driftOf(second, drifting);
+        assertEquals(99_900, drift.getBalanceMinor());
+        assertEquals(3_000, drift.getExpectedMinor());
+        assertFalse(drift.isRepaired());
+        assertEquals(99_900, cardRepository.findById(drifting).orElseThrow().getBalanceMinor());
+        BalanceVerificationReport.Drift idleDrift = driftOf(second, untouched);
+        assertEquals(5_000, idleDrift.getBalanceMinor());
+        assertEquals(1_000, idleDrift.getExpectedMinor());
+
+        BalanceVerificationReport repair = verifier.verify(true);
+        assertEquals(2, repair.getRepaired());
+        assertEquals(3_000, cardRepository.findById(drifting).orElseThrow().getBalanceMinor());
+        assertEquals(1_000, cardRepository.findById(untouched).orElseThrow().getBalanceMinor());
+        assertEquals(0, cardService.getCard(drifting).getBalance().compareTo(BigDecimal.valueOf(30)));
+
+        assertEquals(0, verifier.verify(false).getDriftCount());
+    }
+
+    private static BalanceVerificationReport.Drift driftOf(BalanceVerificationReport report, Long cardId) {
+        return report.getDrifts().stream()
+                .filter(drift -> drift.getCardId().equals(cardId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Long createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request).getId();
+    }
+}
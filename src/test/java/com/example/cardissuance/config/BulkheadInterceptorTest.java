@@ -0,0 +1,41 @@
+package com.example.cardissuance.config;
+
+import com.example.cardissuance.exception.ServiceBusyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // Requests beyond the limit are rejected once the wait expires
+    @Test
+    void shouldRejectWhenFullAndAdmitAfterRelease() throws Exception {
+        BulkheadInterceptor bulkhead = new BulkheadInterceptor(1, 10);
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+
+        assertTrue(bulkhead.preHandle(first, response, null));
+        assertThrows(ServiceBusyException.class, () -> bulkhead.preHandle(second, response, null));
+
+        bulkhead.afterCompletion(first, response, null, null);
+        assertTrue(bulkhead.preHandle(second, response, null));
+    }
+
+    // An async re-dispatch of the same request does not take a second permit
+    @Test
+    void shouldHoldOnePermitAcrossAsyncDispatch() throws Exception {
+        BulkheadInterceptor bulkhead = new BulkheadInterceptor(2, 10);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        bulkhead.preHandle(request, response, null);
+        bulkhead.preHandle(request, response, null);
+        assertEquals(1, bulkhead.availablePermits());
+
+        bulkhead.afterCompletion(request, response, null, null);
+        assertEquals(2, bulkhead.availablePermits());
+    }
+}
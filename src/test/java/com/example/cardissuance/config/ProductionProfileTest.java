@@ -0,0 +1,59 @@
+package com.example.cardissuance.config;
+
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.service.CardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The shipped production profile, on a file database in a fresh directory
+@SpringBootTest
+@ActiveProfiles("production")
+class ProductionProfileTest {
+
+    private static final Path DATA_DIR = createDataDir();
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("card.data-dir", DATA_DIR::toString);
+    }
+
+    @Autowired
+    private StartupSelfCheck selfCheck;
+
+    @Autowired
+    private CardService cardService;
+
+    @Test
+    void shouldStartWithoutSelfCheckWarnings() {
+        assertEquals(List.of(), selfCheck.check());
+
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Durable");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+        Card card = cardService.createCard(request);
+        cardService.spend(card.getId(), BigDecimal.valueOf(40));
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(60)));
+    }
+
+    private static Path createDataDir() {
+        try {
+            return Files.createTempDirectory("card-production");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.cardissuance.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupSelfCheckTest {
+
+    // Never connected: the checks only read its settings
+    private final HikariDataSource pool = new HikariDataSource();
+
+    @AfterEach
+    void closePool() {
+        pool.close();
+    }
+
+    @Test
+    void shouldWarnOnSpringAndHibernateDefaults() {
+        pool.setJdbcUrl("jdbc:h2:mem:check");
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("production");
+
+        List<String> warnings = new StartupSelfCheck(environment, pool).check();
+
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("spring.jpa.open-in-view")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("hibernate.jdbc.batch_size is 0")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("hibernate.order_inserts")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("connection-timeout is 30000 ms")));
+        assertTrue(warnings.stream().anyMatch(w -> w.startsWith("production profile on an in-memory database")));
+    }
+
+    @Test
+    void shouldPassProductionSettings() {
+        pool.setJdbcUrl("jdbc:h2:file:./data/card-issuance;CACHE_SIZE=262144");
+        pool.setMaximumPoolSize(16);
+        pool.setMinimumIdle(16);
+        pool.setConnectionTimeout(2000);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.jpa.open-in-view", "false")
+                .withProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "100")
+                .withProperty("spring.jpa.properties.hibernate.order_inserts", "true")
+                .withProperty("spring.jpa.properties.hibernate.order_updates", "true");
+        environment.setActiveProfiles("production");
+
+        assertEquals(List.of(), new StartupSelfCheck(environment, pool).check());
+
+        pool.setMinimumIdle(2);
+        assertEquals(1, new StartupSelfCheck(environment, pool).check().size());
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.cardissuance.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,7 +47,9 @@ class CardControllerTest {
                         """))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").exists())
-                .andExpect(jsonPath("$.balance").value(100));
+                .andExpect(jsonPath("$.balance").value(100))
+                // Amounts render with two decimals, as the scale = 2 column did
+                .andExpect(content().string(containsString("\"balance\":100.00")));
     }
 
     // POST /cards/{id}/spend
@@ -80,6 +94,38 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.cardholderName").value("Alice"));
     }
 
+    // Pollers revalidate with the ETag and get 304 until the card changes
+    @Test
+    void shouldReturnNotModifiedForMatchingETag() throws Exception {
+        Long cardId = createCardAndReturnId(80);
+
+        String eTag = mockMvc.perform(get("/cards/{id}", cardId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/cards/{id}", cardId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 30.25
+                        }
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.remainingBalance").value(49.75));
+
+        mockMvc.perform(get("/cards/{id}", cardId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.balance").value(49.75))
+                .andExpect(jsonPath("$.version").isNumber())
+                .andExpect(jsonPath("$.createdAt").isString());
+    }
+
     //GET non-existing card
     @Test
     void shouldReturn404WhenCardNotFound() throws Exception {
@@ -167,4 +213,330 @@ class CardControllerTest {
                 .andExpect(jsonPath("$[0].type").exists())
                 .andExpect(jsonPath("$[0].amount").exists());
     }
+
+    // GET /cards/{id}/transactions with keyset pagination
+    @Test
+    void shouldPageTransactionHistoryWithCursor() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/cards/{id}/spend", cardId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                            {
+                              "amount": 10
+                            }
+                            """))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult first = mockMvc.perform(get("/cards/{id}/transactions", cardId).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists(CardController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        String cursor = first.getResponse().getHeader(CardController.NEXT_CURSOR_HEADER);
+        mockMvc.perform(get("/cards/{id}/transactions", cardId).param("limit", "2").param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(CardController.NEXT_CURSOR_HEADER));
+    }
+
+    // GET /cards/{id}/transactions as NDJSON stream
+    @Test
+    void shouldStreamTransactionHistoryAsNdjson() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 25
+                        }
+                        """))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/cards/{id}/transactions", cardId)
+                .accept(CardController.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"type\":\"SPEND\"")));
+    }
+
+    // POST /cards/operations:batch
+    @Test
+    void shouldApplyBatchWithPerItemResults() throws Exception {
+        Long first = createCardAndReturnId(100);
+        Long second = createCardAndReturnId(10);
+
+        mockMvc.perform(post("/cards/operations:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [
+                          { "cardId": %d, "type": "SPEND", "amount": 30 },
+                          { "cardId": %d, "type": "SPEND", "amount": 50 },
+                          { "cardId": %d, "type": "TOPUP", "amount": 5 },
+                          { "cardId": 9999, "type": "SPEND", "amount": 1 },
+                          { "cardId": %d, "type": "REFUND", "amount": 1 }
+                        ]
+                        """.formatted(first, second, first, first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].balance").value(70))
+                .andExpect(jsonPath("$[1].errorCode").value("INSUFFICIENT_BALANCE"))
+                .andExpect(jsonPath("$[2].balance").value(75))
+                .andExpect(jsonPath("$[3].errorCode").value("CARD_NOT_FOUND"))
+                .andExpect(jsonPath("$[4].errorCode").value("INVALID_OPERATION"));
+
+        mockMvc.perform(get("/cards/{id}", second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(10));
+    }
+
+    // Idempotency-Key replay returns the original response
+    @Test
+    void shouldReplaySpendWithSameIdempotencyKey() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/cards/{id}/spend", cardId)
+                    .header(CardController.IDEMPOTENCY_KEY_HEADER, "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                            {
+                              "amount": 40
+                            }
+                            """))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.remainingBalance").value(60));
+        }
+
+        mockMvc.perform(get("/cards/{id}", cardId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(60));
+    }
+
+    // The same Idempotency-Key with another amount or type is refused, not replayed
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentRequest() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .header(CardController.IDEMPOTENCY_KEY_HEADER, "order-7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 40
+                        }
+                        """))
+                .andExpect(status().isOk());
+        for (String operation : new String[] {"spend", "topup"}) {
+            mockMvc.perform(post("/cards/{id}/" + operation, cardId)
+                    .header(CardController.IDEMPOTENCY_KEY_HEADER, "order-7")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(operation.equals("spend") ? "{\"amount\": 45}" : "{\"amount\": 40}"))
+                    .andExpect(status().isUnprocessableEntity());
+        }
+
+        mockMvc.perform(get("/cards/{id}", cardId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(60));
+    }
+
+    // GET /cards/{id}/summary from the rollups
+    @Test
+    void shouldSummariseSpendAndTopUpPerBucket() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+        for (String operation : new String[] {"spend", "spend", "topup"}) {
+            mockMvc.perform(post("/cards/{id}/" + operation, cardId)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                            {
+                              "amount": 20
+                            }
+                            """))
+                    .andExpect(status().isOk());
+        }
+
+        for (String granularity : new String[] {"day", "month"}) {
+            mockMvc.perform(get("/cards/{id}/summary", cardId).param("granularity", granularity))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.granularity").value(granularity))
+                    .andExpect(jsonPath("$.spendTotal").value(40))
+                    .andExpect(jsonPath("$.spendCount").value(2))
+                    .andExpect(jsonPath("$.topUpTotal").value(20))
+                    .andExpect(jsonPath("$.buckets.length()").value(1));
+        }
+
+        mockMvc.perform(get("/cards/{id}/summary", cardId).param("granularity", "week"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Spend limits are enforced with their own status and batch error code
+    @Test
+    void shouldRejectSpendsOverCardLimits() throws Exception {
+        Long cardId = createCardAndReturnId(1000);
+
+        mockMvc.perform(put("/cards/{id}/limits", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "maxPerTransaction": 100,
+                          "windowSeconds": 3600,
+                          "maxWindowAmount": 150,
+                          "maxWindowCount": 3
+                        }
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxWindowAmount").value(150));
+
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 101
+                        }
+                        """))
+                .andExpect(status().isUnprocessableEntity());
+
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 100
+                        }
+                        """))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/cards/operations:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [
+                          { "cardId": %d, "type": "SPEND", "amount": 60 },
+                          { "cardId": %d, "type": "SPEND", "amount": 50 }
+                        ]
+                        """.formatted(cardId, cardId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].errorCode").value("LIMIT_EXCEEDED"))
+                .andExpect(jsonPath("$[1].balance").value(850));
+
+        mockMvc.perform(delete("/cards/{id}/limits", cardId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 200
+                        }
+                        """))
+                .andExpect(status().isOk());
+    }
+
+    // POST /cards/import with CSV: one result per row, bad rows do not stop the import
+    @Test
+    void shouldImportCardsFromCsv() throws Exception {
+        MvcResult result = mockMvc.perform(post("/cards/import")
+                .contentType(CardController.CSV)
+                .content("""
+                        cardholderName,initialBalance
+                        "Smith, Jane",120.50
+                        Bob,-5
+
+                        Carol,abc
+                        Dave,0
+                        """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        JsonNode created = objectMapper.readTree(lines[0]);
+        assertEquals(2, created.get("line").asInt());
+        assertEquals("INVALID_ROW", objectMapper.readTree(lines[1]).get("errorCode").asText());
+        assertEquals(5, objectMapper.readTree(lines[2]).get("line").asInt());
+        assertEquals("INVALID_ROW", objectMapper.readTree(lines[2]).get("errorCode").asText());
+        assertTrue(objectMapper.readTree(lines[3]).get("id").isNumber());
+
+        mockMvc.perform(get("/cards/{id}", created.get("id").asLong()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardholderName").value("Smith, Jane"))
+                .andExpect(jsonPath("$.balance").value(120.5));
+    }
+
+    // POST /cards/import with NDJSON
+    @Test
+    void shouldImportCardsFromNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(post("/cards/import")
+                .contentType(CardController.NDJSON)
+                .content("""
+                        {"cardholderName": "Erin", "initialBalance": 10}
+                        {"cardholderName": "Frank"
+                        {"cardholderName": "Grace", "initialBalance": 0.001}
+                        """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("{\"line\":1,\"id\":")))
+                .andExpect(content().string(containsString("{\"line\":2,\"id\":null,\"errorCode\":\"INVALID_ROW\"")))
+                .andExpect(content().string(containsString("{\"line\":3,\"id\":null,\"errorCode\":\"INVALID_ROW\"")));
+    }
+
+    @Test
+    void shouldRejectCsvImportWithoutHeader() throws Exception {
+        mockMvc.perform(post("/cards/import")
+                .contentType(CardController.CSV)
+                .content("Alice,100\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // GET /cards/transactions:export streams a gzip'd CSV of every card's transactions
+    @Test
+    void shouldExportTransactionsAsGzipCsv() throws Exception {
+        Long cardId = createCardAndReturnId(100);
+        mockMvc.perform(post("/cards/{id}/spend", cardId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 12.5
+                        }
+                        """))
+                .andExpect(status().isOk());
+
+        String today = LocalDate.now(ZoneOffset.UTC).toString();
+        MvcResult result = mockMvc.perform(get("/cards/transactions:export")
+                .param("from", today)
+                .param("to", today))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString(".csv.gz")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+        assertTrue(csv.startsWith("card_id,transaction_id,type,amount,balance_after,created_at\n"));
+        assertTrue(csv.contains("\n" + cardId + ","), csv);
+        assertTrue(csv.contains(",SPEND,12.50,87.50,"), csv);
+    }
+
+    @Test
+    void shouldRejectExportWithReversedRange() throws Exception {
+        mockMvc.perform(get("/cards/transactions:export")
+                .param("from", "2024-05-02")
+                .param("to", "2024-05-01"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.cardissuance.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // GET /actuator/prometheus exposes hot-path latency and error counters
+    @Test
+    void shouldExposeCardMetricsInPrometheusFormat() throws Exception {
+        mockMvc.perform(post("/cards/{id}/spend", 9999)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                          "amount": 1
+                        }
+                        """))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("card_operation_seconds_count{operation=\"spend\"")))
+                .andExpect(content().string(containsString("card_errors_total{type=\"card_not_found\"")))
+                .andExpect(content().string(containsString("card_history_rows")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+    }
+}
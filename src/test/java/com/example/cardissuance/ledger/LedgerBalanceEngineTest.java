@@ -0,0 +1,100 @@
+package com.example.cardissuance.ledger;
+
+import com.example.cardissuance.checkpoint.BalanceVerifier;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.service.CardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "card.engine=ledger",
+        "card.ledger.journal-path=${java.io.tmpdir}/card-ledger-${random.uuid}.journal"
+})
+class LedgerBalanceEngineTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private LedgerBalanceEngine ledger;
+
+    @Autowired
+    private BalanceVerifier verifier;
+
+    // Concurrent spends on one card never conflict
+    @Test
+    void concurrentSpendsOnSameCardAllSucceed() throws Exception {
+        Card card = createCard(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                return cardService.spend(card.getId(), BigDecimal.ONE);
+            }));
+        }
+        latch.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(60)));
+    }
+
+    // Overdraft is still rejected
+    @Test
+    void shouldRejectOverdraft() {
+        Card card = createCard(30);
+
+        assertThrows(
+                InsufficientBalanceException.class,
+                () -> cardService.spend(card.getId(), BigDecimal.valueOf(100))
+        );
+    }
+
+    // Journaled entries are eventually written to the transactions table
+    @Test
+    void mutationsAreWrittenAsynchronously() throws Exception {
+        Card card = createCard(100);
+        cardService.spend(card.getId(), BigDecimal.valueOf(40));
+        cardService.topUp(card.getId(), BigDecimal.valueOf(20));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (ledger.pendingWrites() > 0 || cardService.getTransactions(card.getId(), null, 100).getItems().size() < 2) {
+            assertTrue(System.currentTimeMillis() < deadline, "ledger writer did not catch up");
+            Thread.sleep(20);
+        }
+
+        assertEquals(2, cardService.getTransactions(card.getId(), null, 100).getItems().size());
+    }
+
+    // A repair in the cards table would be overwritten from the partitions, so it is refused
+    @Test
+    void balanceRepairIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(true));
+        assertEquals(0, verifier.verify(false).getRepaired());
+    }
+
+    private Card createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.cardissuance.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadBackEveryFieldAfterReopen() throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        Instant createdAt = Instant.ofEpochMilli(1_700_000_000_123L);
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            journal.append(LedgerEntry.creation(7, "Zoë", 10_000, createdAt), entry -> { });
+            long end = journal.append(LedgerEntry.mutation(7, "SPEND", 2_500, 7_500, "retry-1"), entry -> { });
+            journal.sync(end);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            List<LedgerEntry> entries = journal.readAfter(0);
+            assertEquals(2, entries.size());
+            assertEquals(new LedgerEntry(1, 7, LedgerEntry.CREATE, 10_000, 10_000, null, "Zoë", createdAt),
+                    entries.get(0));
+            assertEquals("retry-1", entries.get(1).idempotencyKey());
+            assertEquals(7_500, entries.get(1).balanceAfter());
+            assertEquals(2, journal.lastSeq());
+        }
+    }
+
+    // A record torn by a crash is dropped on open and overwritten by the next append
+    @Test
+    void shouldTruncateTornTail() throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        long end;
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.append(LedgerEntry.mutation(1, "TOPUP", 100, 100L * i, null), entry -> { });
+            }
+            end = journal.append(LedgerEntry.mutation(1, "TOPUP", 100, 400, null), entry -> { });
+            journal.sync(end);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // Length prefix and half a payload, no checksum
+            ByteBuffer torn = ByteBuffer.allocate(24).putInt(48).putLong(5).put((byte) 1).flip();
+            channel.write(torn, end);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            assertEquals(4, journal.readAfter(0).size());
+            assertEquals(4, journal.lastSeq());
+            journal.sync(journal.append(LedgerEntry.mutation(1, "SPEND", 50, 350, null), entry -> { }));
+        }
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            List<LedgerEntry> entries = journal.readAfter(3);
+            assertEquals(2, entries.size());
+            assertEquals(5, entries.get(1).seq());
+            assertEquals(350, entries.get(1).balanceAfter());
+        }
+    }
+
+    @Test
+    void shouldContinueAcrossChunks() throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        try (LedgerJournal journal = new LedgerJournal(path, 4096)) {
+            long end = 0;
+            for (int i = 1; i <= 500; i++) {
+                end = journal.append(LedgerEntry.mutation(i, "TOPUP", i, i, "key-" + i), entry -> { });
+            }
+            assertTrue(end > 4 * 4096, "journal should span several chunks");
+            journal.sync(end);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(path, 4096)) {
+            List<LedgerEntry> entries = journal.readAfter(0);
+            assertEquals(500, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(i + 1, entries.get(i).seq());
+                assertEquals("key-" + (i + 1), entries.get(i).idempotencyKey());
+            }
+            journal.append(LedgerEntry.mutation(1, "SPEND", 1, 0, null), entry -> assertEquals(501, entry.seq()));
+        }
+    }
+
+    @Test
+    void shouldNumberAfterAppliedSequence() throws Exception {
+        try (LedgerJournal journal = new LedgerJournal(dir.resolve("fresh.journal"))) {
+            journal.startAfter(41);
+            journal.append(LedgerEntry.mutation(1, "TOPUP", 1, 1, null), entry -> assertEquals(42, entry.seq()));
+            assertEquals(1, journal.readAfter(41).size());
+        }
+    }
+}
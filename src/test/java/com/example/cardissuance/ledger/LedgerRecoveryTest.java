@@ -0,0 +1,153 @@
+package com.example.cardissuance.ledger;
+
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import com.example.cardissuance.service.RollupWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Simulates a process kill between journaling and projection: entries are journaled by one
+ * engine "incarnation", the tables are left partly written, and a fresh engine over the same
+ * journal and database must end with every entry projected exactly once.
+ */
+@SpringBootTest
+class LedgerRecoveryTest {
+
+    private static final int BATCH = 10;
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RollupWriter rollupWriter;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Killed after the fsync, before the writer projected anything
+    @Test
+    void shouldReplayUnprojectedTailOnStartup() throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        long cardId;
+        try (LedgerJournal journal = crashedJournal(path)) {
+            cardId = newCardId();
+            journal.append(LedgerEntry.creation(cardId, "Alice", 10_000, Instant.now()), entry -> { });
+            journalTopUps(journal, cardId, 10_000, 25);
+        }
+
+        restart(path).shutdown();
+        assertProjected(cardId, 25, 10_000 + 25 * 100);
+
+        // A second restart finds nothing left to replay
+        restart(path).shutdown();
+        assertProjected(cardId, 25, 10_000 + 25 * 100);
+    }
+
+    // Killed with some batches committed and one rolled back part-way
+    @Test
+    void shouldNotLoseOrDuplicateWhenKilledMidBatch() throws Exception {
+        Path path = dir.resolve("ledger.journal");
+        long cardId = createCard(5_000);
+        List<LedgerEntry> entries;
+        try (LedgerJournal journal = crashedJournal(path)) {
+            entries = journalTopUps(journal, cardId, 5_000, 4 * BATCH);
+        }
+
+        // The writer projects two batches, then the process dies before the third commits
+        try (LedgerJournal journal = new LedgerJournal(path)) {
+            LedgerWriter writer = new LedgerWriter(journal, cardRepository, transactionRepository, rollupWriter,
+                    outboxWriter, new TransactionTemplate(transactionManager), BATCH);
+            writer.write(entries.subList(0, BATCH));
+            writer.write(entries.subList(BATCH, 2 * BATCH));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                writer.write(entries.subList(2 * BATCH, 3 * BATCH));
+                status.setRollbackOnly();
+            });
+        }
+        assertProjected(cardId, 2 * BATCH, 5_000 + 2 * BATCH * 100);
+
+        LedgerBalanceEngine engine = restart(path);
+        assertProjected(cardId, 4 * BATCH, 5_000 + 4 * BATCH * 100);
+
+        // New mutations are numbered after the replayed ones and projected once
+        engine.topUp(cardId, 100);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (engine.pendingWrites() > 0 || history(cardId).size() < 4 * BATCH + 1) {
+            assertTrue(System.currentTimeMillis() < deadline, "ledger writer did not catch up");
+            Thread.sleep(20);
+        }
+        engine.shutdown();
+        restart(path).shutdown();
+        assertProjected(cardId, 4 * BATCH + 1, 5_000 + (4 * BATCH + 1) * 100);
+    }
+
+    // The journal as a previous incarnation left it, numbered after what earlier tests projected
+    private LedgerJournal crashedJournal(Path path) throws Exception {
+        LedgerJournal journal = new LedgerJournal(path);
+        Long applied = transactionRepository.findMaxJournalSeq();
+        journal.startAfter(applied == null ? 0 : applied);
+        return journal;
+    }
+
+    private List<LedgerEntry> journalTopUps(LedgerJournal journal, long cardId, long balance, int count) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        long end = 0;
+        for (int i = 1; i <= count; i++) {
+            end = journal.append(LedgerEntry.mutation(cardId, "TOPUP", 100, balance + i * 100L, null), entries::add);
+        }
+        journal.sync(end);
+        return entries;
+    }
+
+    private LedgerBalanceEngine restart(Path path) throws Exception {
+        LedgerBalanceEngine engine = new LedgerBalanceEngine(cardRepository, transactionRepository, rollupWriter,
+                outboxWriter, transactionManager, 2, path.toString(), BATCH);
+        engine.recover();
+        return engine;
+    }
+
+    private long newCardId() {
+        return cardRepository.nextCardIdBlock();
+    }
+
+    private long createCard(long balance) {
+        Card card = new Card();
+        card.setCardholderName("Bob");
+        card.setBalanceMinor(balance);
+        card.setCreatedAt(Instant.now());
+        return cardRepository.saveAndFlush(card).getId();
+    }
+
+    private List<?> history(long cardId) {
+        return transactionRepository.findPage(cardId, 0L, PageRequest.ofSize(1_000));
+    }
+
+    private void assertProjected(long cardId, int transactions, long balance) {
+        assertEquals(transactions, history(cardId).size());
+        assertEquals(balance, cardRepository.findById(cardId).orElseThrow().getBalanceMinor());
+    }
+}
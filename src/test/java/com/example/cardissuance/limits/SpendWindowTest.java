@@ -0,0 +1,56 @@
+package com.example.cardissuance.limits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendWindowTest {
+
+    private static final long T0 = 1_000_000L;
+
+    // One-minute window: 60 slots of one second
+    private final SpendWindow window = new SpendWindow(60_000L);
+
+    @Test
+    void shouldCountSpendsForTheWholeWindow() {
+        window.add(500, T0);
+        window.add(250, T0 + 30_000);
+
+        assertEquals(750, window.amount(T0 + 30_000));
+        assertEquals(2, window.count(T0 + 59_999));
+
+        // Still counted at the window edge, gone one slot later
+        assertEquals(750, window.amount(T0 + 60_000));
+        assertEquals(250, window.amount(T0 + 61_000));
+        assertEquals(0, window.count(T0 + 91_000));
+    }
+
+    @Test
+    void shouldUndoAReservation() {
+        window.add(500, T0);
+        window.remove(500, T0);
+
+        assertEquals(0, window.amount(T0));
+        assertEquals(0, window.count(T0));
+    }
+
+    // A slot reused by a later spend is not touched by releasing an expired one
+    @Test
+    void shouldIgnoreReleaseOfExpiredSlot() {
+        window.add(500, T0);
+        window.add(100, T0 + 61_000);
+        window.remove(500, T0);
+
+        assertEquals(100, window.amount(T0 + 61_000));
+        assertEquals(1, window.count(T0 + 61_000));
+    }
+
+    // Rebuilding from rows older than the ring holds does not resurrect them
+    @Test
+    void shouldIgnoreSpendsOlderThanTheRing() {
+        window.add(100, T0 + 61_000);
+        window.add(500, T0);
+
+        assertEquals(100, window.amount(T0 + 61_000));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.cardissuance.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void shouldConvertExactlyBothWays() {
+        assertEquals(10_000L, Money.toMinor(new BigDecimal("100")));
+        assertEquals(1_050L, Money.toMinor(new BigDecimal("10.50")));
+        assertEquals(-1L, Money.toMinor(new BigDecimal("-0.01")));
+
+        // Always at the fixed scale: equals, unlike compareTo, checks it
+        assertEquals(new BigDecimal("100.00"), Money.toDecimal(10_000L));
+        assertEquals(new BigDecimal("10.50"), Money.toDecimal(1_050L));
+        assertEquals(new BigDecimal("0.00"), Money.toDecimal(0L));
+        assertEquals(new BigDecimal("-0.01"), Money.toDecimal(-1L));
+    }
+
+    // Sub-cent amounts are rejected, never rounded
+    @Test
+    void shouldRejectAmountsThatDoNotRoundCleanly() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(new BigDecimal("1.005")));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(new BigDecimal("1e30")));
+    }
+
+    // The allocation-free JSON path must render exactly what BigDecimal would
+    @Test
+    void shouldWriteSameTextAsDecimal() {
+        char[] buffer = new char[Money.MAX_DECIMAL_CHARS];
+        long[] samples = {0, 1, 5, 10, 99, 100, 105, 1_050, 10_000, 123_456, -1, -1_050, -10_000,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long minor : samples) {
+            int start = Money.writeDecimal(minor, buffer);
+            assertEquals(Money.toDecimal(minor).toPlainString(),
+                    new String(buffer, start, buffer.length - start), "minor " + minor);
+        }
+    }
+
+    @Test
+    void shouldRejectBalanceOverflow() {
+        assertThrows(IllegalArgumentException.class, () -> Money.add(Long.MAX_VALUE, 1));
+    }
+}
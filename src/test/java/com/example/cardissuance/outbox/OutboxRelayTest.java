@@ -0,0 +1,170 @@
+package com.example.cardissuance.outbox;
+
+import com.example.cardissuance.dto.CardEvent;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.repository.OutboxEventRepository;
+import com.example.cardissuance.service.CardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The relay is driven by the test: the scheduled one is pushed out of the way
+@SpringBootTest(properties = {
+        "card.outbox.relay-interval=PT1H",
+        "card.outbox.purge-interval=PT1H",
+        "card.outbox.stream-duration=PT0.3S",
+        "card.outbox.heartbeat=PT0.1S"
+})
+@AutoConfigureMockMvc
+class OutboxRelayTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private CardEventFeed feed;
+
+    @Autowired
+    private RecordingSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldPublishCommittedTransactionsInOrder() {
+        relay.relay();
+        int before = sink.events.size();
+
+        Long id = createCard(100);
+        cardService.spend(id, BigDecimal.valueOf(30));
+        cardService.topUp(id, new BigDecimal("10.50"));
+        assertEquals(before, sink.events.size());
+
+        relay.relay();
+        List<CardEvent> published = new ArrayList<>(sink.events.subList(before, sink.events.size()));
+        assertEquals(2, published.size());
+        CardEvent spend = published.get(0);
+        CardEvent topUp = published.get(1);
+        assertEquals(id.longValue(), spend.getCardId());
+        assertEquals("SPEND", spend.getType());
+        assertEquals(7_000, spend.getBalanceAfterMinor());
+        assertEquals("TOPUP", topUp.getType());
+        assertEquals(1_050, topUp.getAmountMinor());
+        assertEquals(spend.getOffset() + 1, topUp.getOffset());
+
+        // Nothing is published twice
+        relay.relay();
+        assertEquals(before + 2, sink.events.size());
+
+        List<CardEvent> read = feed.read(spend.getOffset() - 1, 10, Duration.ZERO);
+        assertEquals(2, read.size());
+        assertEquals(spend.getTransactionId(), read.get(0).getTransactionId());
+        assertEquals(topUp.getTransactionId(), read.get(1).getTransactionId());
+        assertTrue(feed.read(topUp.getOffset(), 10, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void shouldServeLongPollAndEventStreamFromOffset() throws Exception {
+        Long id = createCard(50);
+        cardService.spend(id, BigDecimal.valueOf(5));
+        relay.relay();
+        CardEvent last = sink.events.get(sink.events.size() - 1);
+        long after = last.getOffset() - 1;
+
+        MvcResult poll = mockMvc.perform(get("/cards/events")
+                        .param("after", Long.toString(after))
+                        .param("wait", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", Long.toString(last.getOffset())))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].offset").value(last.getOffset()))
+                .andExpect(jsonPath("$[0].balanceAfter").value(45));
+
+        // Last-Event-ID from a reconnecting client wins over the query parameter
+        MvcResult stream = mockMvc.perform(get("/cards/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .param("after", "0")
+                        .header("Last-Event-ID", Long.toString(after)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(stream))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id: " + last.getOffset() + "\ndata: {")))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, body.split("id: ", -1).length - 1);
+    }
+
+    // Offsets carry on after a purge of every published row and a restart
+    @Test
+    void shouldNotReuseOffsetsAfterPurgeAndRestart() {
+        Long id = createCard(100);
+        cardService.spend(id, BigDecimal.ONE);
+        relay.relay();
+        long last = sink.events.get(sink.events.size() - 1).getOffset();
+
+        outboxRepository.deleteAll();
+        relay.start();
+        cardService.spend(id, BigDecimal.ONE);
+        relay.relay();
+        assertEquals(last + 1, sink.events.get(sink.events.size() - 1).getOffset());
+    }
+
+    @Test
+    void shouldRejectOutOfRangeWait() throws Exception {
+        mockMvc.perform(get("/cards/events").param("wait", "61"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Subscriber");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request).getId();
+    }
+
+    static class RecordingSink implements OutboxSink {
+
+        final List<CardEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(List<CardEvent> batch) {
+            events.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class SinkConfig {
+
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.cardissuance.readmodel;
+
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.TransactionPage;
+import com.example.cardissuance.service.CardQueryService;
+import com.example.cardissuance.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Refreshes and idle sweeps are driven by the test: the scheduled ones are pushed out of the way
+@SpringBootTest(properties = {
+        "card.read-model.enabled=true",
+        "card.read-model.refresh-interval=PT1H",
+        "card.read-model.idle-timeout=PT1H",
+        "card.read-model.max-staleness=PT1M",
+        "card.read-model.history-size=3"
+})
+class CardReadModelTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardQueryService queries;
+
+    @Autowired
+    private CardReadModel readModel;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldServeCommittedCardAfterRefresh() {
+        Long id = createCard(100);
+
+        // The first read goes to the primary and asks for a view
+        ReadResult<CardSnapshot> first = queries.getCard(id, ReadConsistency.EVENTUAL);
+        assertFalse(first.fromReadModel());
+        assertEquals(10_000, first.value().getBalanceMinor());
+
+        readModel.refresh();
+        ReadResult<CardSnapshot> loaded = queries.getCard(id, ReadConsistency.EVENTUAL);
+        assertTrue(loaded.fromReadModel());
+        assertEquals(10_000, loaded.value().getBalanceMinor());
+
+        // Until the next refresh the view lags; a strong read does not
+        cardService.spend(id, BigDecimal.valueOf(30));
+        assertEquals(10_000, queries.getCard(id, ReadConsistency.EVENTUAL).value().getBalanceMinor());
+        ReadResult<CardSnapshot> strong = queries.getCard(id, ReadConsistency.STRONG);
+        assertFalse(strong.fromReadModel());
+        assertEquals(7_000, strong.value().getBalanceMinor());
+
+        readModel.refresh();
+        ReadResult<CardSnapshot> refreshed = queries.getCard(id, ReadConsistency.EVENTUAL);
+        assertTrue(refreshed.fromReadModel());
+        assertEquals(7_000, refreshed.value().getBalanceMinor());
+        assertTrue(refreshed.stalenessMillis() < 60_000);
+    }
+
+    @Test
+    void shouldServeOnlyPagesWithinRecentHistory() {
+        Long id = createCard(0);
+        for (int i = 1; i <= 5; i++) {
+            cardService.topUp(id, BigDecimal.valueOf(i));
+        }
+        queries.getCard(id, ReadConsistency.EVENTUAL);
+        readModel.refresh();
+
+        // Five transactions, three in the view: the first page needs the primary
+        ReadResult<TransactionPage> all = queries.getTransactions(id, null, 10, ReadConsistency.EVENTUAL);
+        assertFalse(all.fromReadModel());
+        assertEquals(5, all.value().getItems().size());
+
+        Long second = all.value().getItems().get(1).getId();
+        ReadResult<TransactionPage> page = queries.getTransactions(id, second, 2, ReadConsistency.EVENTUAL);
+        assertTrue(page.fromReadModel());
+        assertEquals(2, page.value().getItems().size());
+        assertEquals(all.value().getItems().get(2).getId(), page.value().getItems().get(0).getId());
+        assertEquals(all.value().getItems().get(3).getId(), page.value().getNextCursor());
+
+        ReadResult<TransactionPage> last = queries.getTransactions(
+                id, page.value().getNextCursor(), 2, ReadConsistency.EVENTUAL);
+        assertTrue(last.fromReadModel());
+        assertEquals(1, last.value().getItems().size());
+        assertNull(last.value().getNextCursor());
+    }
+
+    // A view survives a sweep it was read before, and goes at the next one if nobody reads it
+    @Test
+    void shouldEvictViewsNotReadSinceLastSweep() {
+        Long id = createCard(100);
+        queries.getCard(id, ReadConsistency.EVENTUAL);
+        readModel.refresh();
+
+        readModel.evictIdle();
+        assertTrue(queries.getCard(id, ReadConsistency.EVENTUAL).fromReadModel());
+        readModel.evictIdle();
+        assertTrue(queries.getCard(id, ReadConsistency.EVENTUAL).fromReadModel());
+
+        readModel.evictIdle();
+        readModel.evictIdle();
+        ReadResult<CardSnapshot> evicted = queries.getCard(id, ReadConsistency.EVENTUAL);
+        assertFalse(evicted.fromReadModel());
+        assertEquals(10_000, evicted.value().getBalanceMinor());
+
+        // Read again, so it gets a fresh view
+        readModel.refresh();
+        assertTrue(queries.getCard(id, ReadConsistency.EVENTUAL).fromReadModel());
+    }
+
+    // Read-model hits are timed like primary reads, under their own source tag
+    @Test
+    void shouldTimeReadsBySource() {
+        Long id = createCard(100);
+        Timer readModelTimer = meterRegistry.get("card.operation")
+                .tags("operation", "getCard", "source", "read_model").timer();
+        Timer primaryTimer = meterRegistry.get("card.operation")
+                .tags("operation", "getCard", "source", "primary").timer();
+        long fromReadModel = readModelTimer.count();
+        long fromPrimary = primaryTimer.count();
+
+        queries.getCard(id, ReadConsistency.EVENTUAL);
+        readModel.refresh();
+        queries.getCard(id, ReadConsistency.EVENTUAL);
+
+        assertEquals(fromPrimary + 1, primaryTimer.count());
+        assertEquals(fromReadModel + 1, readModelTimer.count());
+    }
+
+    private Long createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Reader");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request).getId();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CardMutationCoalescerTest {
+
+    private static final int CALLERS = 16;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardMutationCoalescer coalescer;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    // A key already on the card fails its batch's commit; only that mutation fails, the rest still apply
+    @Test
+    void failedBatchFailsOnlyTheOffendingMutation() throws Exception {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Hot");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+        Long cardId = cardService.createCard(request).getId();
+        coalescer.apply(new CardOperation(cardId, "SPEND", 1_000, "taken"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            // Bypasses CardService, whose idempotency check would stop the duplicate first
+            CardOperation operation = i == CALLERS / 2
+                    ? new CardOperation(cardId, "SPEND", 500, "taken")
+                    : new CardOperation(cardId, "SPEND", 100);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return coalescer.apply(operation);
+            }));
+        }
+        start.countDown();
+
+        int failed = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, failed);
+        assertEquals(9_000 - 100L * (CALLERS - 1), cardRepository.findById(cardId).orElseThrow().getBalanceMinor());
+    }
+}
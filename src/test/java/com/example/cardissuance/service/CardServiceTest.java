@@ -1,7 +1,12 @@
 package com.example.cardissuance.service;
 
 
+import com.example.cardissuance.cache.CardCache;
+import com.example.cardissuance.cache.CardSnapshot;
+import com.example.cardissuance.dto.BatchOperationRequest;
+import com.example.cardissuance.dto.BatchOperationResult;
 import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.dto.SpendResponse;
 import com.example.cardissuance.entity.Card;
 import com.example.cardissuance.exception.CardNotFoundException;
 import com.example.cardissuance.exception.InsufficientBalanceException;
@@ -11,12 +16,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +34,9 @@ class CardServiceTest {
     @Autowired
     private CardService cardService;
 
+    @Autowired
+    private CardCache cardCache;
+
     //Crete Card Successfully
     @Test
     void shouldCreateCardSuccessfully() {
@@ -83,6 +94,29 @@ class CardServiceTest {
         );
     }
 
+    // Negative or zero amounts never reach the engine, single or batched
+    @Test
+    void shouldRejectNonPositiveSpendAmounts() {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(50));
+        Card card = cardService.createCard(request);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cardService.spend(card.getId(), BigDecimal.valueOf(-100)));
+        assertThrows(IllegalArgumentException.class,
+                () -> cardService.spend(card.getId(), BigDecimal.ZERO));
+
+        BatchOperationRequest negative = new BatchOperationRequest();
+        negative.setCardId(card.getId());
+        negative.setType("SPEND");
+        negative.setAmount(BigDecimal.valueOf(-100));
+        List<BatchOperationResult> results = cardService.applyBatch(List.of(negative));
+        assertEquals(BatchOperationResult.INVALID_OPERATION, results.get(0).getErrorCode());
+
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(50)));
+    }
+
     // Card not found
     @Test
     void shouldFailWhenCardDoesNotExist() {
@@ -136,8 +170,152 @@ class CardServiceTest {
     
         assertTrue(successCount >= 1);
 
-        Card updated = cardService.getCard(card.getId());
+        CardSnapshot updated = cardService.getCard(card.getId());
         assertTrue(updated.getBalance().compareTo(BigDecimal.ZERO) >= 0);
         assertTrue(updated.getBalance().compareTo(BigDecimal.valueOf(200)) <= 0);
     }
-}
\ No newline at end of file
+
+    // History reads take no row locks: spends and other reads proceed while a read is open
+    @Test
+    void historyReadsDoNotBlockSpendsOrOtherReads() throws Exception {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+
+        Card card = cardService.createCard(request);
+        cardService.spend(card.getId(), BigDecimal.valueOf(10));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch readerInside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> reader = executor.submit(() -> {
+            cardService.streamTransactions(card.getId(), tx -> {
+                readerInside.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        assertTrue(readerInside.await(5, TimeUnit.SECONDS));
+
+        // Reader is parked mid-cursor, inside its transaction
+        Future<?> spend = executor.submit(() -> cardService.spend(card.getId(), BigDecimal.valueOf(10)));
+        Future<?> otherRead = executor.submit(() -> cardService.getTransactions(card.getId(), null, 10));
+
+        try {
+            spend.get(5, TimeUnit.SECONDS);
+            otherRead.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+        reader.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(2, cardService.getTransactions(card.getId(), null, 10).getItems().size());
+    }
+
+    // Repeated reads are served from the cache
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+
+        Card card = cardService.createCard(request);
+        long hits = cardCache.hitCount();
+
+        cardService.getCard(card.getId());
+        cardService.getCard(card.getId());
+
+        assertEquals(hits + 2, cardCache.hitCount());
+    }
+
+    // Mutations invalidate the cached snapshot
+    @Test
+    void shouldNotServeStaleBalanceAfterSpend() {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+
+        Card card = cardService.createCard(request);
+        cardService.getCard(card.getId());
+
+        cardService.spend(card.getId(), BigDecimal.valueOf(30));
+        cardService.topUp(card.getId(), BigDecimal.valueOf(5));
+
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(75)));
+    }
+
+    // Retries with the same Idempotency-Key, including concurrent ones, debit once
+    @Test
+    void shouldDebitOnceForRepeatedIdempotencyKey() throws Exception {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+
+        Card card = cardService.createCard(request);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<SpendResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cardService.spend(card.getId(), BigDecimal.valueOf(30), "order-42");
+            }));
+        }
+        start.countDown();
+        for (Future<SpendResponse> result : results) {
+            assertEquals(0, result.get(5, TimeUnit.SECONDS).getRemainingBalance().compareTo(BigDecimal.valueOf(70)));
+        }
+        executor.shutdown();
+
+        SpendResponse replay = cardService.spend(card.getId(), BigDecimal.valueOf(30), "order-42");
+        assertEquals(0, replay.getRemainingBalance().compareTo(BigDecimal.valueOf(70)));
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(70)));
+        assertEquals(1, cardService.getTransactions(card.getId(), null, 10).getItems().size());
+    }
+
+    // Spends racing on one card are coalesced: each either succeeds or is refused for balance, none conflicts
+    @Test
+    void concurrentSpendsOnHotCardShouldNotConflict() throws Exception {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Corporate");
+        request.setInitialBalance(BigDecimal.valueOf(100));
+
+        Card card = cardService.createCard(request);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<SpendResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cardService.spend(card.getId(), BigDecimal.valueOf(5));
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int refused = 0;
+        for (Future<SpendResponse> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientBalanceException.class, e.getCause());
+                refused++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(20, succeeded);
+        assertEquals(12, refused);
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.ZERO));
+        assertEquals(20, cardService.getTransactions(card.getId(), null, 100).getItems().size());
+    }
+}
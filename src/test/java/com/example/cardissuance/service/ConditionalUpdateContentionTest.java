@@ -0,0 +1,141 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.outbox.OutboxWriter;
+import com.example.cardissuance.repository.CardRepository;
+import com.example.cardissuance.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hot-card contention: many threads spending from one card through the read-modify-write
+ * path and through the conditional-update path, side by side in one context. Checks outcomes
+ * only; throughput is compared by {@code CardServiceBenchmark} in the JMH sources.
+ */
+@SpringBootTest
+class ConditionalUpdateContentionTest {
+
+    private static final int THREADS = 8;
+    private static final int SPENDS_PER_THREAD = 50;
+    private static final long OPENING_MINOR = 100_000_000L;
+    private static final long SPEND_MINOR = 100L;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RollupWriter rollupWriter;
+
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void conditionalUpdateHasNoConflictsUnderContention() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        JpaBalanceEngine jpa = new JpaBalanceEngine(cardRepository, transactionRepository, rollupWriter,
+                outboxWriter);
+        AtomicBalanceEngine atomic = new AtomicBalanceEngine(cardRepository, transactionRepository, rollupWriter,
+                outboxWriter);
+
+        Result readModifyWrite = run(
+                (cardId, amount) -> tx.executeWithoutResult(s -> jpa.spend(cardId, amount)));
+        Result conditional = run(
+                (cardId, amount) -> tx.executeWithoutResult(s -> atomic.spend(cardId, amount)));
+
+        int total = THREADS * SPENDS_PER_THREAD;
+        assertEquals(total, conditional.succeeded);
+        assertEquals(0, conditional.conflicts);
+        // Engines are driven directly, bypassing the card cache; a lost update shows up as a
+        // balance that does not match the spends that reported success
+        assertEquals(OPENING_MINOR - SPEND_MINOR * readModifyWrite.succeeded,
+                cardRepository.findById(readModifyWrite.cardId).orElseThrow().getBalanceMinor());
+        assertEquals(OPENING_MINOR - SPEND_MINOR * total,
+                cardRepository.findById(conditional.cardId).orElseThrow().getBalanceMinor());
+    }
+
+    // Guard is still enforced by the database
+    @Test
+    void conditionalUpdateRejectsOverdraft() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        AtomicBalanceEngine atomic = new AtomicBalanceEngine(cardRepository, transactionRepository, rollupWriter,
+                outboxWriter);
+        Card card = createCard(30);
+
+        assertThrows(InsufficientBalanceException.class,
+                () -> tx.executeWithoutResult(s -> atomic.spend(card.getId(), 3_100L)));
+        assertEquals(0, cardRepository.findById(card.getId()).orElseThrow().getBalance()
+                .compareTo(BigDecimal.valueOf(30)));
+    }
+
+    // Only a lost @Version race counts as a conflict; anything else fails the test through the future
+    private Result run(BiConsumer<Long, Long> spend) throws Exception {
+        Card card = createCard(1_000_000);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SPENDS_PER_THREAD; i++) {
+                    try {
+                        spend.accept(card.getId(), SPEND_MINOR);
+                        succeeded.incrementAndGet();
+                    } catch (ObjectOptimisticLockingFailureException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(card.getId(), succeeded.get(), conflicts.get());
+    }
+
+    private Card createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request);
+    }
+
+    private record Result(Long cardId, int succeeded, int conflicts) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.cardissuance.service;
+
+import com.example.cardissuance.dto.CardRequest;
+import com.example.cardissuance.entity.Card;
+import com.example.cardissuance.exception.CardNotFoundException;
+import com.example.cardissuance.exception.InsufficientBalanceException;
+import com.example.cardissuance.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A wide window, so callers submitting together reliably share a group
+@SpringBootTest(properties = {
+        "card.engine=group-commit",
+        "card.group-commit.window-micros=50000"
+})
+class GroupCommitBalanceEngineTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private BalanceEngine balanceEngine;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    // Concurrent spends share commits and none is lost
+    @Test
+    void concurrentSpendsAreAppliedInOneOrMoreGroups() throws Exception {
+        Card card = createCard(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                return cardService.spend(card.getId(), BigDecimal.ONE);
+            }));
+        }
+        latch.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(60)));
+        assertEquals(40, cardService.getTransactions(card.getId(), null, 100).getItems().size());
+    }
+
+    // One rejected item does not fail the rest of its group
+    @Test
+    void overdraftFailsOnlyTheOffendingCaller() throws Exception {
+        Card card = createCard(50);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        Future<?> ok1 = executor.submit(() -> cardService.spend(card.getId(), BigDecimal.valueOf(20)));
+        Future<?> ok2 = executor.submit(() -> cardService.spend(card.getId(), BigDecimal.valueOf(20)));
+        Future<?> tooMuch = executor.submit(() -> cardService.spend(card.getId(), BigDecimal.valueOf(100)));
+
+        ok1.get();
+        ok2.get();
+        ExecutionException failure = assertThrows(ExecutionException.class, tooMuch::get);
+        assertInstanceOf(InsufficientBalanceException.class, failure.getCause());
+        executor.shutdown();
+
+        assertEquals(0, cardService.getCard(card.getId()).getBalance().compareTo(BigDecimal.valueOf(10)));
+    }
+
+    // A group that fails to commit is retried per caller; only the duplicate key fails
+    @Test
+    void failedGroupIsRetriedOneByOne() throws Exception {
+        Card first = createCard(100);
+        Card second = createCard(100);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<?>> duplicates = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            // Straight to the engine: CardService would answer the second from the idempotency cache
+            duplicates.add(executor.submit(() -> {
+                latch.await();
+                return balanceEngine.spend(first.getId(), 1_000, "same-key");
+            }));
+        }
+        Future<?> unrelated = executor.submit(() -> {
+            latch.await();
+            return balanceEngine.spend(second.getId(), 2_500, null);
+        });
+        latch.countDown();
+
+        unrelated.get();
+        int failed = 0;
+        for (Future<?> duplicate : duplicates) {
+            try {
+                duplicate.get();
+            } catch (ExecutionException e) {
+                failed++;
+            }
+        }
+        executor.shutdown();
+
+        // Read from the table: the card cache was bypassed along with CardService
+        assertEquals(1, failed);
+        assertEquals(9_000, cardRepository.findById(first.getId()).orElseThrow().getBalanceMinor());
+        assertEquals(7_500, cardRepository.findById(second.getId()).orElseThrow().getBalanceMinor());
+    }
+
+    @Test
+    void shouldFailWhenCardDoesNotExist() {
+        assertThrows(
+                CardNotFoundException.class,
+                () -> cardService.spend(999_999L, BigDecimal.ONE)
+        );
+    }
+
+    private Card createCard(int balance) {
+        CardRequest request = new CardRequest();
+        request.setCardholderName("Alice");
+        request.setInitialBalance(BigDecimal.valueOf(balance));
+        return cardService.createCard(request);
+    }
+}